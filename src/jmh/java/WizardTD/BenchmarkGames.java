@@ -0,0 +1,141 @@
+package WizardTD;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+/**
+ * Builds the game states the benchmarks run on. Monsters in these games have no armour (so fireballs do no damage) and
+ * the wizard has more mana than they can ever take, so a benchmark measures the same amount of work every iteration
+ * instead of a game that slowly empties out or ends.
+ */
+public class BenchmarkGames {
+    // Mana the wizard starts with (also the mana cap)
+    private static final int MANA = Integer.MAX_VALUE / 2;
+    // Roughly how many ticks a monster takes to walk a path at speed 1 (used to spread monsters along the paths). Level 2's
+    // longest path is 42 tiles, so this spreads them all the way to the wizard house without any reaching it
+    private static final int PATH_TICKS = 1300;
+
+    /**
+     * Creates a game config with a single wave of monsters that all spawn within the first second. Waves 2 and 3 never
+     * start during a benchmark.
+     * @param layout level file
+     * @param monsters number of monsters in the first wave
+     * @return a JSONObject containing the game configuration
+     */
+    public static JSONObject config(String layout, int monsters) {
+        JSONArray waves = new JSONArray();
+        waves.append(wave(0, monsters));
+        waves.append(wave(1_000_000, 1));
+        waves.append(wave(1_000_000, 1));
+
+        JSONObject config = new JSONObject();
+        config.setString("layout", layout);
+        config.setJSONArray("waves", waves);
+        config.setInt("initial_tower_range", 96);
+        config.setDouble("initial_tower_firing_speed", 1.5);
+        config.setInt("initial_tower_damage", 40);
+        config.setInt("initial_mana", MANA);
+        config.setInt("initial_mana_cap", MANA);
+        config.setInt("initial_mana_gained_per_second", 2);
+        config.setInt("tower_cost", 1);
+        config.setInt("mana_pool_spell_initial_cost", 100);
+        config.setInt("mana_pool_spell_cost_increase_per_use", 150);
+        config.setDouble("mana_pool_spell_cap_multiplier", 1.5);
+        config.setDouble("mana_pool_spell_mana_gained_multiplier", 1.1);
+        return config;
+    }
+
+    /**
+     * Creates the config of a one second long wave of gremlins that can't be hurt.
+     * @param preWavePause seconds before the wave starts
+     * @param quantity number of gremlins in the wave
+     * @return a JSONObject containing the wave configuration
+     */
+    private static JSONObject wave(double preWavePause, int quantity) {
+        JSONObject monster = new JSONObject();
+        monster.setString("type", "gremlin");
+        monster.setInt("hp", 1);
+        monster.setDouble("speed", 1);
+        monster.setDouble("armour", 0);
+        monster.setInt("mana_gained_on_kill", 0);
+        monster.setInt("quantity", quantity);
+
+        JSONObject wave = new JSONObject();
+        wave.setInt("duration", 1);
+        wave.setDouble("pre_wave_pause", preWavePause);
+        wave.setJSONArray("monsters", new JSONArray().append(monster));
+        return wave;
+    }
+
+    /**
+     * Creates a headless game with towers on the grass tiles closest to the paths and every monster of the first wave
+     * spawned and on the move.
+     * @param layout level file
+     * @param towers number of towers to build
+     * @param monsters number of monsters
+     * @return a GameSimulation object
+     */
+    public static GameSimulation game(String layout, int towers, int monsters) {
+        GameSimulation sim = GameSimulation.headless(config(layout, monsters), new Map(layout), 1);
+
+        for(Landmark grass: grassNearPaths(sim.getMap())) {
+            if(sim.getTowers().size() == towers)
+                break;
+            sim.placeTower(grass.getX(), grass.getY());
+        }
+
+        // Run until the whole first wave has spawned
+        while(sim.getWaves().getWaveTimer().getWaveNumber() == 0 || sim.getTicks() < 2 * GameSimulation.TICKS_PER_SECOND)
+            sim.tick();
+
+        return sim;
+    }
+
+    /**
+     * Creates a collection of live monsters spread out along the paths of a map.
+     * @param map a Map object
+     * @param monsters number of monsters
+     * @param grid spatial grid the monsters are tracked in
+     * @return a MonsterCollection object
+     */
+    public static MonsterCollection spreadMonsters(Map map, int monsters, SpatialGrid grid) {
+        MonsterCollection mc = new MonsterCollection(monsters, "gremlin", 1, 1, 0, new HashMap<>(), map, new Random(1), grid, new MonsterPool());
+
+        for(int i = 0; i < monsters; i++) {
+            Monster mtr = mc.spawn();
+            for(int t = i * PATH_TICKS / monsters; t >= 0; t--)
+                mtr.tick();
+        }
+
+        return mc;
+    }
+
+    /**
+     * Gets the grass tiles of a map ordered by how close they are to the nearest path tile (closest first).
+     * @param map a Map object
+     * @return an ArrayList of grass Landmark objects
+     */
+    public static ArrayList<Landmark> grassNearPaths(Map map) {
+        ArrayList<Landmark> grass = new ArrayList<>(map.getGrass());
+        HashMap<Landmark, Integer> distances = new HashMap<>();
+
+        for(Landmark tile: grass) {
+            int closest = Integer.MAX_VALUE;
+            for(ArrayList<ArrayList<Integer>> path: map.getMonsterPaths()) {
+                for(ArrayList<Integer> coords: path) {
+                    int dx = coords.get(0) - tile.getX();
+                    int dy = coords.get(1) - tile.getY();
+                    closest = Math.min(closest, dx * dx + dy * dy);
+                }
+            }
+            distances.put(tile, closest);
+        }
+
+        grass.sort((a, b) -> Integer.compare(distances.get(a), distances.get(b)));
+        return grass;
+    }
+}
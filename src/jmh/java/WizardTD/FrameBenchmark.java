@@ -0,0 +1,38 @@
+package WizardTD;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures a whole simulation tick (the work done for one frame at 1x speed) with N towers and M monsters on level 2.
+ * A new game is built for every iteration so that nothing carries over between iterations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FrameBenchmark {
+    @Param({"1", "10", "50"})
+    private int towers;
+
+    @Param({"10", "100", "1000"})
+    private int monsters;
+
+    private GameSimulation sim;
+
+    /**
+     * Builds the towers and spawns the monsters.
+     */
+    @Setup(Level.Iteration)
+    public void setup() {
+        sim = BenchmarkGames.game("level2.txt", towers, monsters);
+    }
+
+    @Benchmark
+    public void tick() {
+        sim.tick();
+    }
+}
@@ -0,0 +1,37 @@
+package WizardTD;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures finding every path from the spawn points to the wizard house on each level (the flow field search, then
+ * walking downhill from each spawn point).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmark {
+    @Param({"level1.txt", "level2.txt", "level3.txt", "level4.txt"})
+    private String level;
+
+    private Map map;
+
+    /**
+     * Reads the level up front so only the path search is measured.
+     */
+    @Setup
+    public void setup() {
+        map = new Map(level);
+    }
+
+    @Benchmark
+    public ArrayList<ArrayList<ArrayList<Integer>>> findPaths() {
+        map.getFlowField().update(map.getTiles());
+        return Map.findPaths(map.getFlowField());
+    }
+}
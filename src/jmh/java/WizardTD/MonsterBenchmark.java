@@ -0,0 +1,46 @@
+package WizardTD;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Measures monsters walking along the paths, on their own and through their MonsterCollection (which also counts kills
+ * and the wizard's hp loss). Monsters loop back to their spawn point when they reach the wizard house, so the amount of
+ * work stays the same however long the benchmark runs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MonsterBenchmark {
+    @Param({"10", "100", "1000"})
+    private int monsters;
+
+    private MonsterCollection collection;
+    private ArrayList<Monster> handles;
+
+    /**
+     * Spreads the monsters out along the paths of level 2.
+     */
+    @Setup
+    public void setup() {
+        Map map = new Map("level2.txt");
+        collection = BenchmarkGames.spreadMonsters(map, monsters, new SpatialGrid(map));
+        handles = collection.getMonsters();
+    }
+
+    @Benchmark
+    public void monsterTick() {
+        for(Monster mtr: handles)
+            mtr.tick();
+    }
+
+    @Benchmark
+    public void collectionTick() {
+        collection.tick();
+    }
+}
@@ -0,0 +1,65 @@
+package WizardTD;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+import processing.data.JSONObject;
+
+/**
+ * Measures towers finding targets and shooting. For shoot the tower fires at its starting speed and its fireballs fly
+ * until they land. For rapidFire the tower is fast enough to fire every tick, so on every tick it looks up the monsters
+ * near it, picks the closest one in range and shoots, with a stream of fireballs in the air at once. Run with the GC
+ * profiler, both should show no allocations per tick.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TowerBenchmark {
+    @Param({"10", "100", "1000"})
+    private int monsters;
+
+    // Tower firing at its starting speed, and its fireballs
+    private Tower shooter;
+    private Fireballs shooterFireballs = new Fireballs(null);
+    // Tower firing every tick, and its fireballs
+    private Tower rapidFirer;
+    private Fireballs rapidFireballs = new Fireballs(null);
+    // The clock both towers run on
+    private Timer clock = new Timer();
+
+    /**
+     * Builds the towers next to the path.
+     */
+    @Setup
+    public void setup() {
+        Soundboard.setMuted(true);
+        Map map = new Map("level2.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        BenchmarkGames.spreadMonsters(map, monsters, grid);
+
+        Landmark grass = BenchmarkGames.grassNearPaths(map).get(0);
+        shooter = new Tower(grass.getX(), grass.getY(), null, shooterFireballs, BenchmarkGames.config("level2.txt", monsters), clock, grid);
+
+        JSONObject config = BenchmarkGames.config("level2.txt", monsters);
+        config.setDouble("initial_tower_firing_speed", GameSimulation.TICKS_PER_SECOND);
+        rapidFirer = new Tower(grass.getX(), grass.getY(), null, rapidFireballs, config, clock, grid);
+    }
+
+    @Benchmark
+    public void shoot() {
+        clock.tick();
+        shooterFireballs.tick();
+        shooter.tick();
+    }
+
+    @Benchmark
+    public void rapidFire() {
+        clock.tick();
+        rapidFireballs.tick();
+        rapidFirer.tick();
+    }
+}
@@ -0,0 +1,448 @@
+package WizardTD;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import processing.data.JSONObject;
+
+/**
+ * Command-line tool that plays thousands of headless games of a level across all CPU cores and reports how the level
+ * plays out: win rate, mana over time and how long each wave takes to clear. Towers are built and upgraded from a script,
+ * and every game gets its own seed for the monsters' path choices so any single game can be replayed.
+ *
+ * Usage: BalanceRunner config.json levelN.txt [--runs N] [--threads N] [--seed N] [--minutes N] [--script file]
+ *        [--place col,row[@seconds]]... [--targeting first|last|strongest|weakest|closest] [--csv file]
+ *
+ * A script has one action per line: "seconds action [col row]" where action is tower, range, speed, damage or mana,
+ * e.g. "0 tower 5 3" or "20 range 5 3". Actions are done in order, each one as soon as it's due and affordable.
+ */
+public class BalanceRunner {
+    // Defaults for the number of games, the first seed, and how long a game can last before it's called off
+    private static final int DEFAULT_RUNS = 1000;
+    private static final long DEFAULT_SEED = 1;
+    private static final double DEFAULT_MINUTES = 10;
+    // How often (in seconds) the mana curve is printed
+    private static final int CURVE_STEP = 5;
+
+    // The game configuration and the level map shared by every game
+    private JSONObject config;
+    private Map map;
+    // Scripted tower builds, upgrades and spells
+    private List<ScriptedAction> script;
+    // Longest a game can last (in ticks)
+    private long maxTicks;
+    // How every tower chooses its target
+    private Targeting targeting = Targeting.CLOSEST;
+
+    /**
+     * Constructs a BalanceRunner object given the game configuration, the level map, a script and a time limit.
+     * @param config a JSONObject containing the game configuration
+     * @param map the level's Map object (shared read-only by every game)
+     * @param script actions to take during each game
+     * @param maxTicks longest a game can last (in ticks)
+     */
+    public BalanceRunner(JSONObject config, Map map, List<ScriptedAction> script, long maxTicks) {
+        this.config = config;
+        this.map = map;
+        this.script = script;
+        this.maxTicks = maxTicks;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        if(args.length < 2) {
+            System.err.println("Usage: BalanceRunner config.json levelN.txt [--runs N] [--threads N] [--seed N] [--minutes N] "
+                + "[--script file] [--place col,row[@seconds]]... [--targeting first|last|strongest|weakest|closest] [--csv file]");
+            return;
+        }
+
+        JSONObject config = GameSimulation.loadConfig(args[0]);
+        config.setString("layout", args[1]);
+
+        int runs = DEFAULT_RUNS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = DEFAULT_SEED;
+        double minutes = DEFAULT_MINUTES;
+        String csv = null;
+        Targeting targeting = Targeting.CLOSEST;
+        List<ScriptedAction> script = new ArrayList<>();
+
+        for(int i = 2; i < args.length; i++) {
+            switch(args[i]) {
+                case "--runs":
+                    runs = Integer.parseInt(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--minutes":
+                    minutes = Double.parseDouble(args[++i]);
+                    break;
+                case "--script":
+                    for(String line: Files.readAllLines(Paths.get(args[++i]))) {
+                        ScriptedAction action = ScriptedAction.parse(line);
+                        if(action != null)
+                            script.add(action);
+                    }
+                    break;
+                case "--place":
+                    script.add(ScriptedAction.parsePlacement(args[++i]));
+                    break;
+                case "--targeting":
+                    targeting = Targeting.valueOf(args[++i].toUpperCase());
+                    break;
+                case "--csv":
+                    csv = args[++i];
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        if(runs < 1)
+            throw new IllegalArgumentException("--runs must be at least 1: " + runs);
+
+        // Actions are done in order of when they're due
+        script.sort((a, b) -> Long.compare(a.tick, b.tick));
+
+        BalanceRunner runner = new BalanceRunner(config, new Map(args[1]), script, Timer.toTicks(minutes * 60));
+        runner.setTargeting(targeting);
+        long start = System.nanoTime();
+        List<RunResult> results = runner.run(runs, seed, threads);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%d games of %s (seeds %d-%d) on %d threads in %.2f s%n", runs, args[1], seed, seed + runs - 1, threads, elapsed);
+        runner.report(results, new PrintWriter(System.out, true));
+
+        if(csv != null) {
+            try(PrintWriter out = new PrintWriter(csv)) {
+                writeManaCurve(results, out);
+            }
+        }
+    }
+
+    /**
+     * Plays a number of games on a fixed pool of threads. Game i uses seed (seed + i).
+     * @param runs number of games to play
+     * @param seed seed of the first game
+     * @param threads number of threads to play games on
+     * @return the result of each game, in seed order
+     */
+    public List<RunResult> run(int runs, long seed, int threads) throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<RunResult>> futures = new ArrayList<>();
+        List<RunResult> results = new ArrayList<>();
+
+        try {
+            for(int i = 0; i < runs; i++) {
+                long runSeed = seed + i;
+                futures.add(pool.submit(() -> play(runSeed)));
+            }
+            for(Future<RunResult> future: futures) {
+                results.add(future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        return results;
+    }
+
+    /**
+     * Plays a single headless game following the script.
+     * @param seed seed for the monsters' path choices
+     * @return the result of the game
+     */
+    public RunResult play(long seed) {
+        GameSimulation sim = GameSimulation.headless(config, map, seed);
+        // Games are already being played on every thread
+        sim.setParallel(false);
+        Waves waves = sim.getWaves();
+        RunResult result = new RunResult(seed, waves.getNumberOfWaves());
+        // Index of the next scripted action and the tick of the next mana sample
+        int next = 0;
+        long nextSample = 0;
+
+        while(!sim.isOver() && sim.getTicks() < maxTicks) {
+            long now = sim.getTicks();
+
+            // Sample the mana and check for cleared waves once a second
+            if(now >= nextSample) {
+                result.mana.add(sim.getManaBar().getMana());
+                result.recordClearedWaves(waves, now);
+                nextSample += GameSimulation.TICKS_PER_SECOND;
+            }
+
+            // Do the scripted actions that are due (an action that can't be afforded yet is tried again next tick)
+            while(next < script.size() && script.get(next).tick <= now && script.get(next).apply(sim)) {
+                next++;
+                for(Tower twr: sim.getTowers())
+                    twr.setTargeting(targeting);
+            }
+
+            // Don't skip past the next sample or the next scripted action
+            long limit = Math.min(nextSample, maxTicks);
+            if(next < script.size())
+                limit = Math.min(limit, Math.max(script.get(next).tick, now + 1));
+            sim.skipIdleTicks(limit);
+            sim.tick();
+        }
+
+        result.recordClearedWaves(waves, sim.getTicks());
+        result.mana.add(sim.getManaBar().getMana());
+        result.won = sim.isWon();
+        result.ticks = sim.getTicks();
+        return result;
+    }
+
+    /**
+     * Sets how every tower chooses its target.
+     * @param targeting the towers' targeting
+     */
+    public void setTargeting(Targeting targeting) {
+        this.targeting = targeting;
+    }
+
+    /**
+     * Prints the win rate, game length, wave clear times and mana curve across all games.
+     * @param results the result of each game
+     * @param out where to print the report
+     */
+    public void report(List<RunResult> results, PrintWriter out) {
+        if(results.isEmpty()) {
+            out.println("No games were played");
+            return;
+        }
+
+        int wins = 0;
+        double totalSeconds = 0;
+        for(RunResult result: results) {
+            if(result.won)
+                wins++;
+            totalSeconds += result.ticks / (double)GameSimulation.TICKS_PER_SECOND;
+        }
+
+        out.printf("Win rate: %.1f%% (%d/%d)%n", 100.0 * wins / results.size(), wins, results.size());
+        out.printf("Average game length: %.1f s%n", totalSeconds / results.size());
+
+        // Wave clear times are measured from the start of the wave, for the games where the wave was cleared
+        out.println("Wave clear times (seconds after the wave starts):");
+        int numberOfWaves = results.get(0).waveClearTicks.length;
+        for(int wave = 0; wave < numberOfWaves; wave++) {
+            int cleared = 0;
+            double total = 0;
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            for(RunResult result: results) {
+                long clearTicks = result.waveClearTicks[wave];
+                if(clearTicks >= 0) {
+                    cleared++;
+                    total += clearTicks;
+                    min = Math.min(min, clearTicks);
+                    max = Math.max(max, clearTicks);
+                }
+            }
+            if(cleared == 0) {
+                out.printf("  Wave %d: never cleared%n", wave + 1);
+            } else {
+                double tps = GameSimulation.TICKS_PER_SECOND;
+                out.printf("  Wave %d: mean %.1f, min %.1f, max %.1f (cleared in %.1f%% of games)%n", wave + 1,
+                    total / cleared / tps, min / tps, max / tps, 100.0 * cleared / results.size());
+            }
+        }
+
+        // Mean mana across the games still going at each point in time
+        out.println("Mana curve (mean mana of games still running):");
+        double[][] curve = getManaCurve(results);
+        for(int second = 0; second < curve.length; second += CURVE_STEP) {
+            out.printf("  %4ds: %7.1f (%d games)%n", second, curve[second][0], (int)curve[second][3]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the mana curve as CSV (second, mean, min, max, games still running).
+     * @param results the result of each game
+     * @param out where to write the CSV
+     */
+    public static void writeManaCurve(List<RunResult> results, PrintWriter out) {
+        out.println("second,mean,min,max,games");
+        double[][] curve = getManaCurve(results);
+        for(int second = 0; second < curve.length; second++) {
+            out.printf("%d,%.2f,%.0f,%.0f,%.0f%n", second, curve[second][0], curve[second][1], curve[second][2], curve[second][3]);
+        }
+    }
+
+    /**
+     * Works out the mean, min and max mana at each second across the games still running at that second.
+     * @param results the result of each game
+     * @return for each second: {mean, min, max, number of games}
+     */
+    private static double[][] getManaCurve(List<RunResult> results) {
+        int seconds = 0;
+        for(RunResult result: results) {
+            seconds = Math.max(seconds, result.mana.size());
+        }
+
+        double[][] curve = new double[seconds][];
+        for(int second = 0; second < seconds; second++) {
+            double total = 0;
+            double min = Double.MAX_VALUE;
+            double max = 0;
+            int games = 0;
+            for(RunResult result: results) {
+                if(second < result.mana.size()) {
+                    int mana = result.mana.get(second);
+                    total += mana;
+                    min = Math.min(min, mana);
+                    max = Math.max(max, mana);
+                    games++;
+                }
+            }
+            curve[second] = new double[] {total / games, min, max, games};
+        }
+        return curve;
+    }
+
+    /**
+     * The outcome of a single game.
+     */
+    public static class RunResult {
+        // Seed the game was played with
+        public final long seed;
+        // Whether the game was won and how many ticks it lasted
+        public boolean won;
+        public long ticks;
+        // Mana at each second of the game
+        public final ArrayList<Integer> mana = new ArrayList<>();
+        // Ticks from the start of each wave until all of its monsters were killed (-1 if never cleared)
+        public final long[] waveClearTicks;
+
+        /**
+         * Constructs a RunResult object given the game's seed and number of waves.
+         * @param seed seed the game was played with
+         * @param numberOfWaves number of waves in the level
+         */
+        public RunResult(long seed, int numberOfWaves) {
+            this.seed = seed;
+            this.waveClearTicks = new long[numberOfWaves];
+            Arrays.fill(this.waveClearTicks, -1);
+        }
+
+        /**
+         * Records the clear time of any waves that have been cleared since the last check.
+         * @param waves the game's Waves object
+         * @param now the current tick
+         */
+        private void recordClearedWaves(Waves waves, long now) {
+            ArrayList<MonsterCollection> collections = waves.getMonsters();
+            for(int wave = 0; wave < collections.size(); wave++) {
+                if(waveClearTicks[wave] < 0 && collections.get(wave).isCleared())
+                    waveClearTicks[wave] = now - waves.getWaveTimer().getWaveStartTick(wave);
+            }
+        }
+    }
+
+    /**
+     * A scripted action: build a tower, upgrade a tower or cast the mana pool spell once a given tick is reached.
+     */
+    public static class ScriptedAction {
+        // The tick the action is due
+        private final long tick;
+        // The action (tower, range, speed, damage or mana) and the tile it's done on
+        private final String action;
+        private final int col;
+        private final int row;
+
+        /**
+         * Constructs a ScriptedAction object given when it's due, what it does and the tile it's done on.
+         * @param tick the tick the action is due
+         * @param action tower, range, speed, damage or mana
+         * @param col column of the tile
+         * @param row row of the tile
+         */
+        public ScriptedAction(long tick, String action, int col, int row) {
+            this.tick = tick;
+            this.action = action;
+            this.col = col;
+            this.row = row;
+        }
+
+        /**
+         * Parses a line of a script: "seconds action [col row]". Blank lines and lines starting with # are skipped.
+         * @param line a line of the script
+         * @return the action, or null if the line has no action
+         * @throws IllegalArgumentException if the line isn't a valid action
+         */
+        public static ScriptedAction parse(String line) {
+            line = line.trim();
+            if(line.isEmpty() || line.startsWith("#"))
+                return null;
+
+            String[] parts = line.split("\\s+");
+            if(parts.length < 2)
+                throw new IllegalArgumentException("Bad script line: " + line);
+            long tick = Timer.toTicks(Double.parseDouble(parts[0]));
+            String action = parts[1].toLowerCase();
+            if(action.equals("mana")) {
+                if(parts.length != 2)
+                    throw new IllegalArgumentException("Bad script line: " + line);
+                return new ScriptedAction(tick, action, -1, -1);
+            }
+            if(!action.equals("tower") && !action.equals("range") && !action.equals("speed") && !action.equals("damage"))
+                throw new IllegalArgumentException("Unknown scripted action: " + line);
+            if(parts.length != 4)
+                throw new IllegalArgumentException("Bad script line: " + line);
+            return new ScriptedAction(tick, action, Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        }
+
+        /**
+         * Parses a tower placement given as "col,row" or "col,row@seconds".
+         * @param placement the tower placement
+         * @return the action
+         */
+        public static ScriptedAction parsePlacement(String placement) {
+            String[] at = placement.split("@");
+            String[] tile = at[0].split(",");
+            long tick = at.length > 1 ? Timer.toTicks(Double.parseDouble(at[1])) : 0;
+            return new ScriptedAction(tick, "tower", Integer.parseInt(tile[0].trim()), Integer.parseInt(tile[1].trim()));
+        }
+
+        /**
+         * Tries to do the action. Actions that can never be done (building on a tile that isn't free grass, upgrading a
+         * tower that doesn't exist, or upgrading the speed of a tower whose speed is maxed out) are given up on so they
+         * don't hold up the rest of the script.
+         * @param sim the game simulation
+         * @return true if the action was done or given up on, false if it can't be afforded yet
+         */
+        public boolean apply(GameSimulation sim) {
+            int x = col * App.CELLSIZE;
+            int y = row * App.CELLSIZE + App.TOPBAR;
+
+            if(action.equals("tower"))
+                return sim.placeTower(x, y) != null || sim.getManaBar().getMana() > sim.getInitialTowerCost();
+            if(action.equals("mana"))
+                return sim.castManaPoolSpell();
+
+            Tower twr = sim.getTowerAt(x, y);
+            if(twr == null)
+                return true;
+            if(action.equals("range"))
+                return sim.upgradeRange(twr);
+            if(action.equals("speed"))
+                return sim.isSpeedMaxed(twr) || sim.upgradeSpeed(twr);
+            return sim.upgradeDamage(twr);
+        }
+    }
+}
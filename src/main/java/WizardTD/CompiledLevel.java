@@ -0,0 +1,215 @@
+package WizardTD;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+
+/**
+ * Everything the Map works out from a level file: what's on each tile, which path image each path tile is drawn with,
+ * each path tile's distance to the wizard house and the paths the monsters take. It can be written to and read back from
+ * a compact binary form (see LevelCache), so the level file doesn't have to be parsed and searched every time it's loaded.
+ */
+public class CompiledLevel {
+    // Marks the start of the binary form, and its version (bump it whenever the form changes)
+    private static final int MAGIC = 0x57544C56; // "WTLV"
+    private static final int VERSION = 1;
+
+    // Path image for each combination of neighbouring path tiles (indexed by the neighbour bits below), as
+    // type * 4 + rotation (type 0 = straight, 1 = turn, 2 = 3-way intersection, 3 = 4-way intersection)
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+    private static final int ABOVE = 4;
+    private static final int BELOW = 8;
+    private static final byte[] PATH_IMAGES = {
+        -1,    // no neighbours (not drawn)
+        0,     // left: straight
+        0,     // right: straight
+        0,     // left and right: straight
+        1,     // above: rotated straight
+        5,     // left and above: rotated turn
+        6,     // right and above: rotated turn
+        10,    // left, right and above: rotated 3-way intersection
+        1,     // below: rotated straight
+        4,     // left and below: turn
+        7,     // right and below: rotated turn
+        8,     // left, right and below: 3-way intersection
+        1,     // above and below: rotated straight
+        9,     // left, above and below: rotated 3-way intersection
+        11,    // right, above and below: rotated 3-way intersection
+        12     // all four: 4-way intersection
+    };
+
+    // What's on each tile
+    private TileGrid tiles;
+    // Path image of each tile (type * 4 + rotation, -1 for tiles that aren't drawn as path)
+    private byte[] pathImages;
+    // Distance from each tile to the wizard house
+    private FlowField flowField;
+    // Pixel coordinates along each path the monsters take, from just outside the map to the wizard house
+    private ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths;
+
+    /**
+     * Constructs a CompiledLevel object from its parts.
+     * @param tiles what's on each tile
+     * @param pathImages path image of each tile
+     * @param flowField distance from each tile to the wizard house
+     * @param monsterPaths pixel coordinates along each path
+     */
+    private CompiledLevel(TileGrid tiles, byte[] pathImages, FlowField flowField, ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths) {
+        this.tiles = tiles;
+        this.pathImages = pathImages;
+        this.flowField = flowField;
+        this.monsterPaths = monsterPaths;
+    }
+
+    /**
+     * Compiles a level file: reads its tiles, picks each path tile's image and finds the monster paths.
+     * @param layout the level file
+     * @return a CompiledLevel object
+     */
+    public static CompiledLevel compile(String layout) {
+        FileReader f = new FileReader(layout);
+        TileGrid tiles = new TileGrid();
+
+        for(int i = 0; i < TileGrid.ROWS; i++) {
+            for(int j = 0; j < TileGrid.COLUMNS; j++) {
+                int tile = i * TileGrid.COLUMNS + j;
+                if(f.getSymbols()[i][j].equals("S"))
+                    tiles.set(tile, TileGrid.SHRUB);
+                else if(f.getSymbols()[i][j].equals("W"))
+                    tiles.set(tile, TileGrid.WIZARD_HOUSE);
+                else if(f.getSymbols()[i][j].equals("X"))
+                    tiles.set(tile, TileGrid.PATH);
+            }
+        }
+
+        byte[] pathImages = new byte[TileGrid.COLUMNS * TileGrid.ROWS];
+        for(int tile = 0; tile < pathImages.length; tile++)
+            pathImages[tile] = pathImageAt(tiles, tile);
+
+        FlowField flowField = new FlowField(tiles);
+        return new CompiledLevel(tiles, pathImages, flowField, Map.findPaths(flowField));
+    }
+
+    /**
+     * Works out which path image a tile is drawn with from which of its neighbours are path tiles.
+     * @param tiles what's on each tile
+     * @param tile index of the tile
+     * @return type * 4 + rotation, or -1 if the tile isn't drawn as path
+     */
+    public static byte pathImageAt(TileGrid tiles, int tile) {
+        if(tiles.get(tile) != TileGrid.PATH)
+            return -1;
+
+        int column = tile % TileGrid.COLUMNS;
+        int row = tile / TileGrid.COLUMNS;
+        int neighbours = 0;
+        if(column > 0 && tiles.get(tile - 1) == TileGrid.PATH)
+            neighbours |= LEFT;
+        if(column < TileGrid.COLUMNS - 1 && tiles.get(tile + 1) == TileGrid.PATH)
+            neighbours |= RIGHT;
+        if(row > 0 && tiles.get(tile - TileGrid.COLUMNS) == TileGrid.PATH)
+            neighbours |= ABOVE;
+        if(row < TileGrid.ROWS - 1 && tiles.get(tile + TileGrid.COLUMNS) == TileGrid.PATH)
+            neighbours |= BELOW;
+        return PATH_IMAGES[neighbours];
+    }
+
+    /**
+     * Writes the level in its binary form.
+     * @param out where to write it
+     * @throws IOException if it can't be written
+     */
+    public void write(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            out.writeByte(tiles.get(tile));
+            out.writeByte(pathImages[tile]);
+            out.writeInt(flowField.getDistance(tile));
+        }
+
+        out.writeInt(monsterPaths.size());
+        for(ArrayList<ArrayList<Integer>> path: monsterPaths) {
+            out.writeInt(path.size());
+            for(ArrayList<Integer> coordinates: path) {
+                out.writeInt(coordinates.get(0));
+                out.writeInt(coordinates.get(1));
+            }
+        }
+    }
+
+    /**
+     * Reads a level written by write().
+     * @param in the level's binary form
+     * @return a CompiledLevel object, or null if it isn't a level in the current binary form
+     */
+    public static CompiledLevel read(ByteBuffer in) {
+        if(in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION)
+            return null;
+
+        try {
+            TileGrid tiles = new TileGrid();
+            byte[] pathImages = new byte[TileGrid.COLUMNS * TileGrid.ROWS];
+            int[] distances = new int[TileGrid.COLUMNS * TileGrid.ROWS];
+            for(int tile = 0; tile < distances.length; tile++) {
+                tiles.set(tile, in.get());
+                pathImages[tile] = in.get();
+                distances[tile] = in.getInt();
+            }
+
+            int pathCount = in.getInt();
+            ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths = new ArrayList<>();
+            for(int p = 0; p < pathCount; p++) {
+                int length = in.getInt();
+                ArrayList<ArrayList<Integer>> path = new ArrayList<>();
+                for(int i = 0; i < length; i++) {
+                    ArrayList<Integer> coordinates = new ArrayList<>(2);
+                    coordinates.add(in.getInt());
+                    coordinates.add(in.getInt());
+                    path.add(coordinates);
+                }
+                monsterPaths.add(path);
+            }
+            return new CompiledLevel(tiles, pathImages, new FlowField(distances), monsterPaths);
+        // Cut short (e.g. the program stopped while the cache was being written)
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets what's on each tile.
+     * @return a TileGrid object
+     */
+    public TileGrid getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Gets the path image of a tile.
+     * @param tile index of the tile
+     * @return type * 4 + rotation, or -1 if the tile isn't drawn as path
+     */
+    public int getPathImage(int tile) {
+        return pathImages[tile];
+    }
+
+    /**
+     * Gets the distance from each tile to the wizard house.
+     * @return a FlowField object
+     */
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * Gets the paths the monsters take.
+     * @return pixel coordinates along each path, from just outside the map to the wizard house
+     */
+    public ArrayList<ArrayList<ArrayList<Integer>>> getMonsterPaths() {
+        return monsterPaths;
+    }
+}
@@ -0,0 +1,223 @@
+package WizardTD;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+ * Every fireball in the air, kept structure-of-arrays style like the MonsterPool: one primitive array per field, packed
+ * so the fireballs in flight are always the first ones. Towers fire into it as often as their speed allows, and the
+ * fireballs are all moved in one pass per tick and drawn in one pass per frame. The arrays only grow (doubling when they
+ * run out), so firing doesn't allocate once the game has warmed up.
+ *
+ * Each tick is done in two phases. First every fireball decides where it goes and whether it hits, only reading the game,
+ * so with enough fireballs in the air this is split across the common ForkJoinPool. Then the hits are resolved one at a
+ * time in a fixed order, so the game plays out the same however many threads decided.
+ */
+public class Fireballs {
+    // Number of fireballs there's room for to start with
+    private static final int INITIAL_CAPACITY = 64;
+    // Slowest a fireball flies (pixels per tick), and how much faster than a quicker monster it is
+    private static final double MIN_SPEED = 3.5;
+    private static final double SPEED_OVER_MONSTER = 1.6;
+    // What each fireball decides to do this tick
+    private static final byte MOVE = 0;
+    private static final byte HIT = 1;
+    private static final byte FIZZLE = 2;
+    // Number of fireballs each thread decides for (fewer fireballs than two of these are decided on one thread)
+    private static final int PARALLEL_CHUNK = 256;
+
+    // Fireball image (null when headless)
+    private PImage sprite;
+    // Coordinates, and coordinates at the previous tick (used to interpolate between ticks when drawing)
+    private float[] x = new float[0];
+    private float[] y = new float[0];
+    private float[] prevX = new float[0];
+    private float[] prevY = new float[0];
+    // The monster each fireball is chasing, and its generation when it was shot at (Monster handles are reused)
+    private Monster[] targets = new Monster[0];
+    private int[] targetGenerations = new int[0];
+    // Damage each fireball does (the tower's damage when it was shot, before the monster's armour)
+    private int[] damage = new int[0];
+    // What each fireball has decided to do this tick, and where it's moving to
+    private byte[] outcomes = new byte[0];
+    private float[] nextX = new float[0];
+    private float[] nextY = new float[0];
+    // Number of fireballs in the air
+    private int count;
+
+    /**
+     * Constructs an empty Fireballs object given the fireball image.
+     * @param sprite fireball image
+     */
+    public Fireballs(PImage sprite) {
+        this.sprite = sprite;
+        resize(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Shoots a fireball at a monster.
+     * @param x x-coordinate the fireball starts from (the tower's center)
+     * @param y y-coordinate the fireball starts from
+     * @param target the monster to chase
+     * @param damage damage done to the monster (before its armour)
+     */
+    public void fire(float x, float y, Monster target, int damage) {
+        if(count == this.x.length)
+            resize(count * 2);
+
+        this.x[count] = x;
+        this.y[count] = y;
+        prevX[count] = x;
+        prevY[count] = y;
+        targets[count] = target;
+        targetGenerations[count] = target.getGeneration();
+        this.damage[count] = damage;
+        count++;
+    }
+
+    /**
+     * Moves every fireball straight towards its monster, and damages the monster once a fireball touches it. A fireball
+     * whose monster has died (or finished dying and been replaced) fizzles out. Everything is done on the calling thread.
+     */
+    public void tick() {
+        decide(false);
+        resolve();
+    }
+
+    /**
+     * Works out where every fireball moves to this tick and whether it hits its monster, without changing anything else
+     * in the game.
+     * @param parallel true to split the fireballs across the common ForkJoinPool if there are enough of them
+     */
+    public void decide(boolean parallel) {
+        if(parallel && count >= PARALLEL_CHUNK * 2) {
+            int chunks = (count + PARALLEL_CHUNK - 1) / PARALLEL_CHUNK;
+            IntStream.range(0, chunks).parallel().forEach(chunk -> decide(chunk * PARALLEL_CHUNK, Math.min(count, (chunk + 1) * PARALLEL_CHUNK)));
+        } else {
+            decide(0, count);
+        }
+    }
+
+    /**
+     * Works out where some of the fireballs move to this tick and whether they hit their monsters.
+     * @param from index of the first fireball
+     * @param to index after the last fireball
+     */
+    private void decide(int from, int to) {
+        for(int i = from; i < to; i++) {
+            Monster target = targets[i];
+            // Fizzle out if the monster has been shot dead (it's only marked not alive when its wave next ticks) or replaced
+            if(target.getGeneration() != targetGenerations[i] || !target.getIsAlive() || target.getIsDying()) {
+                outcomes[i] = FIZZLE;
+                continue;
+            }
+
+            // Fly at least as fast as the monster can run, along the (normalised) direction to the monster, or straight
+            // to the monster if it's closer than that
+            double speed = Math.max(MIN_SPEED, target.getSpeed() + SPEED_OVER_MONSTER);
+            float dx = target.getXCenter() - x[i];
+            float dy = target.getYCenter() - y[i];
+            double distanceSquared = (double)dx * dx + (double)dy * dy;
+            double step = distanceSquared <= speed * speed ? 1 : speed / Math.sqrt(distanceSquared);
+            nextX[i] = (float)(x[i] + dx * step);
+            nextY[i] = (float)(y[i] + dy * step);
+
+            // The fireball hits if it passes through the monster on the way. The whole step is checked, so a fireball
+            // can't skip over a monster however far it flies in a tick
+            float half = Monster.SIZE / 2f;
+            boolean hit = Geometry.segmentIntersectsRect(x[i], y[i], nextX[i], nextY[i], target.getXCenter() - half, target.getYCenter() - half,
+                target.getXCenter() + half, target.getYCenter() + half);
+            outcomes[i] = hit ? HIT : MOVE;
+        }
+    }
+
+    /**
+     * Carries out what the fireballs decided, in the order they were shot: hits damage their monsters (accounting for
+     * armour) and fireballs move on. A fireball whose monster was shot dead by an earlier fireball this tick fizzles out
+     * instead. Fireballs that are finished with are taken out and the rest are shuffled down to fill the gaps, keeping
+     * their order.
+     */
+    public void resolve() {
+        int kept = 0;
+        for(int i = 0; i < count; i++) {
+            Monster target = targets[i];
+            if(outcomes[i] == FIZZLE || target.getIsDying())
+                continue;
+
+            if(outcomes[i] == HIT) {
+                target.setHp(target.getHp() - (int)(damage[i] * target.getArmour()));
+                if(target.getHp() <= 0)
+                    target.setIsDying(true);
+                continue;
+            }
+
+            prevX[kept] = x[i];
+            prevY[kept] = y[i];
+            x[kept] = nextX[i];
+            y[kept] = nextY[i];
+            targets[kept] = target;
+            targetGenerations[kept] = targetGenerations[i];
+            damage[kept] = damage[i];
+            kept++;
+        }
+
+        // Let go of the monsters the finished fireballs were chasing
+        Arrays.fill(targets, kept, count, null);
+        count = kept;
+    }
+
+    /**
+     * Draws every fireball in the air.
+     * @param app the PApplet class of the game
+     * @param alpha how far the game is between the last tick and the next (0 to 1)
+     */
+    public void draw(PApplet app, float alpha) {
+        // Handling graphics (interpolated between the last two positions)
+        for(int i = 0; i < count; i++)
+            app.image(sprite, PApplet.lerp(prevX[i], x[i], alpha), PApplet.lerp(prevY[i], y[i], alpha));
+    }
+
+    /**
+     * Gets the number of fireballs in the air.
+     * @return number of fireballs
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Indicates if there are no fireballs in the air.
+     * @return true if every fireball has landed or fizzled out
+     */
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Gets the number of fireballs there's room for before the arrays have to grow.
+     * @return capacity
+     */
+    public int getCapacity() {
+        return x.length;
+    }
+
+    /**
+     * Grows the arrays, keeping the fireballs in the air.
+     * @param capacity new number of fireballs there's room for
+     */
+    private void resize(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        targets = Arrays.copyOf(targets, capacity);
+        targetGenerations = Arrays.copyOf(targetGenerations, capacity);
+        damage = Arrays.copyOf(damage, capacity);
+        outcomes = Arrays.copyOf(outcomes, capacity);
+        nextX = Arrays.copyOf(nextX, capacity);
+        nextY = Arrays.copyOf(nextY, capacity);
+    }
+}
@@ -0,0 +1,285 @@
+package WizardTD;
+
+import java.util.Arrays;
+
+/**
+ * How many path tiles each tile is from the wizard house, found with one breadth-first search over the map's path tiles.
+ * Walking to any neighbouring tile that is one step closer (downhill) leads to the wizard house the shortest way, so one
+ * field serves every spawn point and every monster, whatever forks the paths have.
+ */
+public class FlowField {
+    // Distance marking tiles that can't reach the wizard house (or aren't path)
+    public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    // Column and row steps to each neighbouring tile (left, right, down, up)
+    private static final int[] COLUMN_STEPS = {-1, 1, 0, 0};
+    private static final int[] ROW_STEPS = {0, 0, 1, -1};
+
+    // Steps from each tile to the wizard house (indexed like TileGrid)
+    private int[] distances = new int[TileGrid.COLUMNS * TileGrid.ROWS];
+    // Queue of tiles for the search, and which tiles are in it
+    private int[] queue = new int[TileGrid.COLUMNS * TileGrid.ROWS];
+    private boolean[] queued = new boolean[TileGrid.COLUMNS * TileGrid.ROWS];
+    // Tiles a repair has changed the distance of, and what their distance was before it
+    private int[] touched = new int[TileGrid.COLUMNS * TileGrid.ROWS];
+    private boolean[] isTouched = new boolean[TileGrid.COLUMNS * TileGrid.ROWS];
+    private int[] oldDistances = new int[TileGrid.COLUMNS * TileGrid.ROWS];
+    // Tiles whose way down may have changed in the last update (see isAffected), and a list of them
+    private boolean[] affected = new boolean[TileGrid.COLUMNS * TileGrid.ROWS];
+    private int[] affectedTiles = new int[TileGrid.COLUMNS * TileGrid.ROWS];
+    private int affectedCount;
+
+    /**
+     * Constructs a FlowField object for a map's tiles.
+     * @param tiles what's on each tile of the map
+     */
+    public FlowField(TileGrid tiles) {
+        update(tiles);
+    }
+
+    /**
+     * Constructs a FlowField object from distances that have already been worked out (e.g. read from the level cache).
+     * @param distances steps from each tile to the wizard house (indexed like TileGrid)
+     */
+    public FlowField(int[] distances) {
+        this.distances = distances.clone();
+    }
+
+    /**
+     * Works out every tile's distance to the wizard house again (e.g. after the map's paths have changed).
+     * @param tiles what's on each tile of the map
+     */
+    public void update(TileGrid tiles) {
+        // Any tile's way down could have changed
+        Arrays.fill(affected, true);
+        for(int index = 0; index < affectedTiles.length; index++)
+            affectedTiles[index] = index;
+        affectedCount = affectedTiles.length;
+
+        Arrays.fill(distances, UNREACHABLE);
+        int head = 0;
+        int tail = 0;
+
+        for(int index = 0; index < distances.length; index++) {
+            if(tiles.get(index) == TileGrid.WIZARD_HOUSE) {
+                distances[index] = 0;
+                queue[tail++] = index;
+            }
+        }
+
+        while(head < tail) {
+            int index = queue[head++];
+            for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+                int neighbour = neighbour(index, direction);
+                if(neighbour >= 0 && distances[neighbour] == UNREACHABLE && tiles.get(neighbour) == TileGrid.PATH) {
+                    distances[neighbour] = distances[index] + 1;
+                    queue[tail++] = neighbour;
+                }
+            }
+        }
+    }
+
+    /**
+     * Repairs the distances after one tile has changed (e.g. in the level editor), only visiting the tiles whose
+     * distance could have changed rather than searching the whole map again. Tiles that were reached through the changed
+     * tile and have no other way down are cleared first, then they (and the changed tile) are given distances again from
+     * their neighbours, and any improvement is spread outwards. Afterwards isAffected tells which tiles' way down the
+     * repair could have changed.
+     * @param tiles what's on each tile of the map (already changed)
+     * @param changed index of the tile that changed
+     */
+    public void update(TileGrid tiles, int changed) {
+        int head = 0;
+        int tail = 0;
+        int touchedCount = 0;
+
+        // Clear the tiles that were relying on the changed tile to get to the wizard house
+        if(distances[changed] != UNREACHABLE && distances[changed] != 0) {
+            touched[touchedCount++] = touch(changed);
+            distances[changed] = UNREACHABLE;
+            queue[tail++] = changed;
+            while(head < tail) {
+                int index = queue[head++];
+                for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+                    int neighbour = neighbour(index, direction);
+                    if(neighbour >= 0 && distances[neighbour] != UNREACHABLE && distances[neighbour] != 0 && !hasWayDown(neighbour)) {
+                        touched[touchedCount++] = touch(neighbour);
+                        distances[neighbour] = UNREACHABLE;
+                        queue[tail++] = neighbour;
+                    }
+                }
+            }
+        } else {
+            queue[tail++] = changed;
+        }
+
+        // Give the cleared tiles (and the changed tile) distances from their neighbours
+        for(int i = 0; i < tail; i++) {
+            int index = queue[i];
+            queued[index] = true;
+            if(tiles.get(index) != TileGrid.PATH)
+                continue;
+            for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+                int neighbour = neighbour(index, direction);
+                if(neighbour >= 0 && distances[neighbour] != UNREACHABLE && distances[neighbour] + 1 < distances[index]) {
+                    if(!isTouched[index])
+                        touched[touchedCount++] = touch(index);
+                    distances[index] = distances[neighbour] + 1;
+                }
+            }
+        }
+
+        // Spread any improvements outwards (the queue wraps around, and a tile is never in it twice)
+        int length = tail;
+        head = 0;
+        while(length > 0) {
+            int index = queue[head];
+            head = (head + 1) % queue.length;
+            length--;
+            queued[index] = false;
+            if(distances[index] == UNREACHABLE)
+                continue;
+
+            for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+                int neighbour = neighbour(index, direction);
+                if(neighbour >= 0 && tiles.get(neighbour) == TileGrid.PATH && distances[index] + 1 < distances[neighbour]) {
+                    if(!isTouched[neighbour])
+                        touched[touchedCount++] = touch(neighbour);
+                    distances[neighbour] = distances[index] + 1;
+                    if(!queued[neighbour]) {
+                        queued[neighbour] = true;
+                        queue[(head + length) % queue.length] = neighbour;
+                        length++;
+                    }
+                }
+            }
+        }
+
+        // Which way is downhill from a tile depends on its distance and its neighbours', so a tile whose distance really
+        // changed (rather than being cleared and given the same one back) affects itself and its neighbours
+        for(int i = 0; i < affectedCount; i++)
+            affected[affectedTiles[i]] = false;
+        affectedCount = 0;
+        for(int i = 0; i < touchedCount; i++) {
+            int index = touched[i];
+            isTouched[index] = false;
+            if(oldDistances[index] == distances[index])
+                continue;
+
+            markAffected(index);
+            for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+                int neighbour = neighbour(index, direction);
+                if(neighbour >= 0)
+                    markAffected(neighbour);
+            }
+        }
+    }
+
+    /**
+     * Indicates if the last update could have changed the way to the wizard house from a tile: its distance or one of its
+     * neighbours' distances changed, so next() may give a different answer. After a full update every tile is affected.
+     * @param index index of the tile
+     * @return true if the tile's way down may have changed
+     */
+    public boolean isAffected(int index) {
+        return affected[index];
+    }
+
+    /**
+     * Remembers a tile's distance before a repair first changes it.
+     * @param index index of the tile
+     * @return the index, to add to the list of touched tiles
+     */
+    private int touch(int index) {
+        isTouched[index] = true;
+        oldDistances[index] = distances[index];
+        return index;
+    }
+
+    /**
+     * Marks a tile as affected by the last update.
+     * @param index index of the tile
+     */
+    private void markAffected(int index) {
+        if(!affected[index]) {
+            affected[index] = true;
+            affectedTiles[affectedCount++] = index;
+        }
+    }
+
+    /**
+     * Gets how many tiles a tile is from the wizard house.
+     * @param index index of the tile
+     * @return number of steps, or UNREACHABLE
+     */
+    public int getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Gets the next tile on the shortest way to the wizard house. Where there's more than one way, going straight on is
+     * preferred (so paths don't zigzag through wide bits of path), then a fixed order (left, right, down, up) so every
+     * monster coming the same way goes the same way.
+     * @param index index of the tile
+     * @param previous index of the tile before it (-1 if there isn't one)
+     * @return index of the downhill neighbour, or -1 if the tile is the wizard house or can't reach it
+     */
+    public int next(int index, int previous) {
+        int distance = distances[index];
+        if(distance == 0 || distance == UNREACHABLE)
+            return -1;
+
+        int next = -1;
+        for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+            int neighbour = neighbour(index, direction);
+            if(neighbour < 0 || distances[neighbour] != distance - 1)
+                continue;
+            // Straight on (the same way the previous tile led to this one)
+            if(previous >= 0 && neighbour(previous, direction) == index)
+                return neighbour;
+            if(next < 0)
+                next = neighbour;
+        }
+        return next;
+    }
+
+    /**
+     * Indicates if a tile is a path tile on the edge of the map, where monsters come on to the map.
+     * @param index index of the tile
+     * @return true if monsters can spawn next to this tile and reach the wizard house
+     */
+    public boolean isSpawnPoint(int index) {
+        int column = index % TileGrid.COLUMNS;
+        int row = index / TileGrid.COLUMNS;
+        boolean onEdge = column == 0 || column == TileGrid.COLUMNS - 1 || row == 0 || row == TileGrid.ROWS - 1;
+        return onEdge && distances[index] != 0 && distances[index] != UNREACHABLE;
+    }
+
+    /**
+     * Indicates if a tile has a neighbour one step closer to the wizard house.
+     * @param index index of the tile
+     * @return true if the tile can still get to the wizard house
+     */
+    private boolean hasWayDown(int index) {
+        for(int direction = 0; direction < COLUMN_STEPS.length; direction++) {
+            int neighbour = neighbour(index, direction);
+            if(neighbour >= 0 && distances[neighbour] == distances[index] - 1)
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets a tile's neighbour.
+     * @param index index of the tile
+     * @param direction index into COLUMN_STEPS and ROW_STEPS
+     * @return index of the neighbour, or -1 if it's off the map
+     */
+    private static int neighbour(int index, int direction) {
+        int column = index % TileGrid.COLUMNS + COLUMN_STEPS[direction];
+        int row = index / TileGrid.COLUMNS + ROW_STEPS[direction];
+        if(column < 0 || column >= TileGrid.COLUMNS || row < 0 || row >= TileGrid.ROWS)
+            return -1;
+        return row * TileGrid.COLUMNS + column;
+    }
+}
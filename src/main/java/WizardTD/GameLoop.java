@@ -0,0 +1,141 @@
+package WizardTD;
+
+/**
+ * Fixed-timestep game loop. Real time is gathered into an accumulator and the game simulation is stepped in
+ * constant-sized ticks, so game timing doesn't depend on how fast frames are drawn. The left over fraction of a
+ * tick is used by the renderer to interpolate monster and fireball positions between ticks.
+ */
+public class GameLoop {
+    // Length of a single simulation tick in nanoseconds
+    public static final long TICK_NANOS = 1_000_000_000L / GameSimulation.TICKS_PER_SECOND;
+    // Most ticks run in one frame at 1x speed, so a very slow frame can't snowball into ever slower frames
+    private static final int MAX_TICKS_PER_FRAME = 10;
+    // Most time spent running ticks in one frame, so the window stays responsive at high speeds
+    private static final long FRAME_BUDGET_NANOS = 12_000_000L;
+    // Speed multiplier that runs as many ticks as fit in the frame budget
+    public static final double MAX_SPEED = Double.POSITIVE_INFINITY;
+
+    // The game simulation being stepped
+    private GameSimulation sim;
+    // Time not yet simulated (in nanoseconds)
+    private long accumulator;
+    // Time of the last update (in nanoseconds), negative before the first update
+    private long lastTime = -1;
+    // Game speed multiplier (e.g. 2 for 2x speed)
+    private double speed = 1;
+    // Used to measure the effective number of ticks run per second of real time
+    private long windowStart = -1;
+    private int windowTicks;
+    private double ticksPerSecond;
+
+    /**
+     * Constructs a GameLoop object given the game simulation it steps.
+     * @param sim a GameSimulation object
+     */
+    public GameLoop(GameSimulation sim) {
+        this.sim = sim;
+    }
+
+    /**
+     * Runs as many simulation ticks as the time passed since the last update calls for (scaled by the game speed).
+     * Only the state after the last tick gets drawn, so at high speeds the in-between ticks are never rendered.
+     * @param now the current time in nanoseconds
+     * @return the number of ticks that were run
+     */
+    public int update(long now) {
+        int ticks;
+
+        if(speed == MAX_SPEED) {
+            // Run ticks until the frame budget is used up
+            ticks = runTicks(Integer.MAX_VALUE, true);
+            accumulator = 0;
+        } else {
+            if(lastTime >= 0)
+                accumulator += (long)((now - lastTime) * speed);
+
+            ticks = runTicks(MAX_TICKS_PER_FRAME * (int)Math.ceil(speed), false);
+
+            // Drop any time we couldn't catch up on rather than carrying it into the next frame
+            if(accumulator >= TICK_NANOS)
+                accumulator %= TICK_NANOS;
+        }
+        lastTime = now;
+
+        // Update the effective ticks per second about once a second
+        windowTicks += ticks;
+        if(windowStart < 0) {
+            windowStart = now;
+        } else if(now - windowStart >= 1_000_000_000L) {
+            ticksPerSecond = windowTicks * 1_000_000_000.0 / (now - windowStart);
+            windowStart = now;
+            windowTicks = 0;
+        }
+
+        return ticks;
+    }
+
+    /**
+     * Runs ticks until the accumulated time runs out (unless ignored), the tick limit or the frame budget is reached, or the game ends.
+     * @param maxTicks most ticks to run
+     * @param ignoreAccumulator true to keep running ticks regardless of the accumulated time
+     * @return the number of ticks that were run
+     */
+    private int runTicks(int maxTicks, boolean ignoreAccumulator) {
+        long start = System.nanoTime();
+        int ticks = 0;
+
+        while((ignoreAccumulator || accumulator >= TICK_NANOS) && ticks < maxTicks && !sim.isOver()) {
+            sim.tick();
+            accumulator -= TICK_NANOS;
+            ticks++;
+
+            if(ticks > MAX_TICKS_PER_FRAME && System.nanoTime() - start >= FRAME_BUDGET_NANOS)
+                break;
+        }
+
+        return ticks;
+    }
+
+    /**
+     * Lets time pass without simulating it (used while the game is paused).
+     * @param now the current time in nanoseconds
+     */
+    public void skip(long now) {
+        lastTime = now;
+        windowStart = now;
+        windowTicks = 0;
+        ticksPerSecond = 0;
+    }
+
+    /**
+     * Gets how far the game is between the last tick and the next one, used to interpolate positions when drawing.
+     * @return a value between 0 (last tick) and 1 (next tick)
+     */
+    public float getAlpha() {
+        return (float)accumulator / (float)TICK_NANOS;
+    }
+
+    /**
+     * Gets the game speed multiplier.
+     * @return game speed multiplier
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the game speed multiplier.
+     * @param speed new game speed multiplier (e.g. 2 for 2x speed), or MAX_SPEED to run as fast as possible
+     */
+    public void setSpeed(double speed) {
+        this.speed = speed;
+    }
+
+    /**
+     * Gets the effective number of ticks run per second of real time (measured over roughly the last second).
+     * @return effective ticks per second
+     */
+    public double getTicksPerSecond() {
+        return ticksPerSecond;
+    }
+}
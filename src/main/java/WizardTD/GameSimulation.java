@@ -0,0 +1,508 @@
+package WizardTD;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import processing.core.PImage;
+import processing.data.JSONObject;
+
+/**
+ * The core of the game: owns the map, waves, towers and mana, and steps the game forward one tick at a time.
+ * Has no dependency on the game window so that it can be run headless (e.g. for balance simulations) as
+ * fast as the CPU allows. App is a renderer and input handler sitting on top of it.
+ */
+public class GameSimulation {
+    // Number of simulation ticks per second of game time (independent of the frame rate)
+    public static final int TICKS_PER_SECOND = 60;
+    // Initial tower upgrade cost, cost increase of each upgrade
+    public static final int INITIAL_UPGRADE_COST = 20;
+    public static final int UPGRADE_COST_INCREASE = 10;
+    // Range and speed upgrade values
+    public static final int RANGE_UPGRADE = App.CELLSIZE * 2;
+    public static final double SPEED_UPGRADE = 0.5;
+    // Fewest towers worth deciding on more than one thread
+    private static final int PARALLEL_TOWERS = 64;
+
+    // The config JSONObject
+    private JSONObject jsonObj;
+    // Map and Waves objects
+    private Map map;
+    private Waves wave;
+    // Towers built by the player
+    private ArrayList<Tower> towers = new ArrayList<>();
+    // What's on each tile of the map, including the towers (ids are indexes into towers)
+    private TileGrid tiles;
+    // Tower images (null when headless)
+    private ArrayList<PImage> towerImages;
+    // Fireballs shot by the towers
+    private Fireballs fireballs;
+    // Initial tower cost (w/out any upgrades)
+    private int initialTowerCost;
+
+    // Variables for the mana pool spell
+    private int manaPoolSpellCost;
+    private int manaPoolSpellCostIncreasePerUse;
+    private double manaPoolSpellCapMultiplier;
+    private double manaPoolSpellManaGainedMultiplier;
+
+    // The game clock and the scheduler that runs timed events (wave starts and monster spawns)
+    private Timer timer = new Timer();
+    private Scheduler scheduler = new Scheduler();
+    // Whether towers and fireballs may decide what to do on more than one thread (results are the same either way)
+    private boolean parallel = true;
+
+    /**
+     * Constructs a GameSimulation object given a JSONObject, a Map object and images used by the monsters and towers.
+     * @param jsonObj a JSONObject containing the game configuration
+     * @param map a Map object
+     * @param monsterImages a hashmap of monster types and their images
+     * @param towerImages tower images for the different upgrade levels
+     * @param fballImage fireball image
+     */
+    public GameSimulation(JSONObject jsonObj, Map map, HashMap<String, ArrayList<PImage>> monsterImages, ArrayList<PImage> towerImages, PImage fballImage) {
+        this(jsonObj, map, monsterImages, towerImages, fballImage, new Random());
+    }
+
+    /**
+     * Constructs a GameSimulation object given a JSONObject, a Map object, images used by the monsters and towers, and the
+     * random number generator used to choose monster paths (seed it to make a game reproducible).
+     * @param jsonObj a JSONObject containing the game configuration
+     * @param map a Map object
+     * @param monsterImages a hashmap of monster types and their images
+     * @param towerImages tower images for the different upgrade levels
+     * @param fballImage fireball image
+     * @param random used to randomly choose the paths monsters take
+     */
+    public GameSimulation(JSONObject jsonObj, Map map, HashMap<String, ArrayList<PImage>> monsterImages, ArrayList<PImage> towerImages, PImage fballImage, Random random) {
+        this(jsonObj, map, monsterImages, towerImages, fballImage, random, new MonsterPool());
+    }
+
+    /**
+     * Constructs a GameSimulation object that stores its monsters in an existing pool, so restarting the game doesn't
+     * have to allocate the monsters all over again.
+     * @param jsonObj a JSONObject containing the game configuration
+     * @param map a Map object
+     * @param monsterImages a hashmap of monster types and their images
+     * @param towerImages tower images for the different upgrade levels
+     * @param fballImage fireball image
+     * @param random used to randomly choose the paths monsters take
+     * @param pool the pool to store monsters in (anything left in it from the last game is given back)
+     */
+    public GameSimulation(JSONObject jsonObj, Map map, HashMap<String, ArrayList<PImage>> monsterImages, ArrayList<PImage> towerImages, PImage fballImage, Random random, MonsterPool pool) {
+        this.jsonObj = jsonObj;
+        this.map = map;
+        this.towerImages = towerImages;
+        this.fireballs = new Fireballs(fballImage);
+        // The Map may be shared with other games, so towers go on a copy of its tiles
+        this.tiles = new TileGrid(map.getTiles());
+
+        this.wave = new Waves(jsonObj, monsterImages, map, timer, scheduler, random, pool);
+
+        // Get tower and mana pool spell attributes
+        this.initialTowerCost = jsonObj.getInt("tower_cost");
+        this.manaPoolSpellCost = jsonObj.getInt("mana_pool_spell_initial_cost");
+        this.manaPoolSpellCostIncreasePerUse = jsonObj.getInt("mana_pool_spell_cost_increase_per_use");
+        this.manaPoolSpellCapMultiplier = jsonObj.getDouble("mana_pool_spell_cap_multiplier");
+        this.manaPoolSpellManaGainedMultiplier = jsonObj.getDouble("mana_pool_spell_mana_gained_multiplier");
+    }
+
+    /**
+     * Creates a GameSimulation with no images and no sounds, for running the game without a window.
+     * @param jsonObj a JSONObject containing the game configuration
+     * @return a headless GameSimulation object
+     */
+    public static GameSimulation headless(JSONObject jsonObj) {
+        Soundboard.setMuted(true);
+        return new GameSimulation(jsonObj, new Map(jsonObj.getString("layout")), new HashMap<>(), null, null);
+    }
+
+    /**
+     * Creates a reproducible GameSimulation with no images and no sounds. The Map isn't changed by the game, so one Map
+     * can be shared by many simulations (including ones running on other threads).
+     * @param jsonObj a JSONObject containing the game configuration
+     * @param map a Map object
+     * @param seed seed for the random choice of monster paths
+     * @return a headless GameSimulation object
+     */
+    public static GameSimulation headless(JSONObject jsonObj, Map map, long seed) {
+        Soundboard.setMuted(true);
+        return new GameSimulation(jsonObj, map, new HashMap<>(), null, null, new Random(seed));
+    }
+
+    /**
+     * Loads a config file and creates a headless GameSimulation from it.
+     * @param configPath path to the config.json file
+     * @return a headless GameSimulation object
+     */
+    public static GameSimulation headless(String configPath) {
+        return headless(loadConfig(configPath));
+    }
+
+    /**
+     * Loads a config file without needing a PApplet.
+     * @param configPath path to the config.json file
+     * @return the config as a JSONObject
+     */
+    public static JSONObject loadConfig(String configPath) {
+        return processing.core.PApplet.loadJSONObject(new File(configPath));
+    }
+
+    /**
+     * Advances the game by a single tick: the game timer, any events due this tick, the waves of monsters, the fireballs
+     * in the air and the towers (which shoot new fireballs). Fireballs and towers go in two phases: first they all decide
+     * what to do, only reading the game (on the common ForkJoinPool when there are enough of them), then their decisions
+     * are carried out one at a time in a fixed order, so a game plays out the same on any number of threads.
+     */
+    public void tick() {
+        timer.tick();
+        scheduler.runDue(timer.getTicks());
+        wave.tick();
+
+        // Fireballs land before towers choose targets. A monster killed this tick is only marked dying (it's taken out of
+        // the spatial grid when its wave next ticks), and findTarget passes over dying monsters, so towers don't waste a
+        // shot on it
+        fireballs.decide(parallel);
+        fireballs.resolve();
+
+        if(parallel && towers.size() >= PARALLEL_TOWERS)
+            towers.parallelStream().forEach(twr -> twr.decide());
+        else
+            towers.forEach(twr -> twr.decide());
+        towers.forEach(twr -> twr.resolve());
+    }
+
+    /**
+     * Sets whether towers and fireballs may decide what to do on more than one thread. Turn it off when games are already
+     * being run on every core (e.g. balance runs), where splitting each tick up would only add overhead.
+     * @param parallel true to allow more than one thread
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Updates the mana bar without advancing the game (used while the game is paused so purchases still show).
+     */
+    public void pausedTick() {
+        wave.manaTick();
+    }
+
+    /**
+     * Runs the game until it's won or lost, or until the tick limit is reached. Stretches of time where nothing
+     * is happening are skipped straight to the next scheduled event.
+     * @param maxTicks maximum number of ticks to run for
+     * @return the number of ticks of game time that passed
+     */
+    public long runToCompletion(long maxTicks) {
+        long start = timer.getTicks();
+
+        while(!isOver() && timer.getTicks() - start < maxTicks) {
+            skipIdleTicks(start + maxTicks);
+            tick();
+        }
+
+        return timer.getTicks() - start;
+    }
+
+    /**
+     * If nothing is happening in the game (no monsters on the move or dying and no fireballs in the air), moves the clock
+     * forward to just before the next scheduled event, since every tick in between would do nothing.
+     * @param limit latest tick to skip to
+     */
+    public void skipIdleTicks(long limit) {
+        if(!isIdle())
+            return;
+
+        long next = Math.min(scheduler.getNextEventTick() - 1, limit - 1);
+        timer.advanceTo(next);
+    }
+
+    /**
+     * Indicates if nothing is happening in the game apart from scheduled events.
+     * @return true if no monsters are on the move or dying and no fireballs are in the air
+     */
+    public boolean isIdle() {
+        return fireballs.isEmpty() && !wave.hasActiveMonsters();
+    }
+
+    /**
+     * Brings the game up to date with edits made to its Map by the level editor, so the game can carry on: the terrain
+     * is copied over (towers stay where they are, so tiles with towers on mustn't be edited), the monsters are put on the
+     * new paths from where they are, and the towers work out which path tiles they cover again.
+     * @return true if every monster was put on a path, false if some can't reach the wizard house any more
+     */
+    public boolean applyMapEdits() {
+        TileGrid terrain = map.getTiles();
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            if(!TileGrid.isTower(tiles.get(tile)))
+                tiles.set(tile, terrain.get(tile));
+        }
+
+        if(map.getCompiledPaths().isEmpty())
+            return false;
+        boolean rerouted = wave.reroute();
+        towers.forEach(twr -> twr.updateCoveredCells());
+        return rerouted;
+    }
+
+    /**
+     * Builds a tower on the grass tile at the given position if the tile is free and there's enough mana.
+     * @param x x-coordinate of the grass tile
+     * @param y y-coordinate of the grass tile
+     * @return the new Tower object, or null if the tower couldn't be built
+     */
+    public Tower placeTower(int x, int y) {
+        // Make sure it's being placed on a grass tile without a tower (the wizard house stands on its own tile type)
+        int index = TileGrid.indexAt(x, y);
+        if(index < 0 || tiles.get(index) != TileGrid.GRASS || TileGrid.getX(index) != x || TileGrid.getY(index) != y)
+            return null;
+
+        // Ensure player can't kill themselves by overbuying
+        if(wave.getManaBar().getMana() <= initialTowerCost)
+            return null;
+
+        Tower tower = new Tower(x, y, towerImages, fireballs, jsonObj, timer, wave.getGrid());
+        towers.add(tower);
+        tiles.set(index, towers.size() - 1);
+        // Charge the mana bar the cost of the tower
+        wave.getManaBar().setMana(wave.getManaBar().getMana() - initialTowerCost);
+
+        return tower;
+    }
+
+    /**
+     * Gets the tower on the tile at a position on the map.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return the Tower object, or null if there's no tower there
+     */
+    public Tower getTowerAt(int x, int y) {
+        int tile = tiles.getAt(x, y);
+        return TileGrid.isTower(tile) ? towers.get(tile) : null;
+    }
+
+    /**
+     * Gets what's on each tile of the map, including the towers.
+     * @return a TileGrid object
+     */
+    public TileGrid getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Upgrades a tower's range if there's enough mana.
+     * @param twr the tower to upgrade
+     * @return true if the tower was upgraded
+     */
+    public boolean upgradeRange(Tower twr) {
+        int cost = getRangeUpgradeCost(twr);
+
+        if(wave.getManaBar().getMana() > cost) {
+            wave.getManaBar().setMana(wave.getManaBar().getMana() - cost);
+            twr.setRange(twr.getRange() + RANGE_UPGRADE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Upgrades a tower's firing speed if there's enough mana.
+     * @param twr the tower to upgrade
+     * @return true if the tower was upgraded
+     */
+    public boolean upgradeSpeed(Tower twr) {
+        int cost = getSpeedUpgradeCost(twr);
+
+        if(!isSpeedMaxed(twr) && wave.getManaBar().getMana() > cost) {
+            wave.getManaBar().setMana(wave.getManaBar().getMana() - cost);
+            twr.setSpeed(twr.getSpeed() - SPEED_UPGRADE);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indicates if a tower's firing speed can't be upgraded any further.
+     * @param twr the tower
+     * @return true if the tower's speed is fully upgraded
+     */
+    public boolean isSpeedMaxed(Tower twr) {
+        return twr.getSpeed() == 0;
+    }
+
+    /**
+     * Upgrades a tower's damage if there's enough mana.
+     * @param twr the tower to upgrade
+     * @return true if the tower was upgraded
+     */
+    public boolean upgradeDamage(Tower twr) {
+        int cost = getDamageUpgradeCost(twr);
+
+        if(wave.getManaBar().getMana() > cost) {
+            wave.getManaBar().setMana(wave.getManaBar().getMana() - cost);
+            twr.setDamage(twr.getDamage() + (twr.getInitialTowerDamage() / 2));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Casts the mana pool spell if there's enough mana. This charges the cost of the spell to the mana bar
+     * and increases the mana pool spell cost, mana bar cap, mana trickle gained, and amount of mana earned from killing monsters.
+     * @return true if the spell was cast
+     */
+    public boolean castManaPoolSpell() {
+        ManaBar manaBar = wave.getManaBar();
+
+        // If you have enough mana to spend
+        if(manaBar.getMana() > manaPoolSpellCost) {
+            // Play mana pool spell sound
+            Soundboard.playSound("manapool");
+            // Charge the cost to the mana bar
+            manaBar.setMana(manaBar.getMana() - manaPoolSpellCost);
+            // Increase the mana pool spell cost
+            manaPoolSpellCost += manaPoolSpellCostIncreasePerUse;
+            // Increase the mana bar cap/maximum
+            manaBar.setManaCap((int)(manaBar.getManaCap() * manaPoolSpellCapMultiplier));
+            // Increase the mana trickle
+            manaBar.setManaGPS(manaBar.getManaGPS() * manaPoolSpellManaGainedMultiplier);
+            // Increase amount of mana earned from monster kills
+            manaBar.setManaPoolSpellMultiplier(manaBar.getManaPoolSpellMultiplier() * manaPoolSpellManaGainedMultiplier);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the cost of the next range upgrade for a tower.
+     * @param twr the tower to be upgraded
+     * @return upgrade cost
+     */
+    public int getRangeUpgradeCost(Tower twr) {
+        return INITIAL_UPGRADE_COST + (UPGRADE_COST_INCREASE * twr.getRangeUpgradeLevel());
+    }
+
+    /**
+     * Gets the cost of the next speed upgrade for a tower.
+     * @param twr the tower to be upgraded
+     * @return upgrade cost
+     */
+    public int getSpeedUpgradeCost(Tower twr) {
+        return INITIAL_UPGRADE_COST + (UPGRADE_COST_INCREASE * twr.getSpeedUpgradeLevel());
+    }
+
+    /**
+     * Gets the cost of the next damage upgrade for a tower.
+     * @param twr the tower to be upgraded
+     * @return upgrade cost
+     */
+    public int getDamageUpgradeCost(Tower twr) {
+        return INITIAL_UPGRADE_COST + (UPGRADE_COST_INCREASE * twr.getDamageUpgradeLevel());
+    }
+
+    /**
+     * Indicates if the game is over, either won or lost.
+     * @return true if the game has been won or lost
+     */
+    public boolean isOver() {
+        return wave.isGameOver() || wave.doWeHaveAWinner();
+    }
+
+    /**
+     * Indicates if the game has been lost.
+     * @return true if the game has been lost
+     */
+    public boolean isGameOver() {
+        return wave.isGameOver();
+    }
+
+    /**
+     * Indicates if the game has been won.
+     * @return true if the game has been won
+     */
+    public boolean isWon() {
+        return wave.doWeHaveAWinner();
+    }
+
+    /**
+     * Gets the Map object.
+     * @return Map object
+     */
+    public Map getMap() {
+        return map;
+    }
+
+    /**
+     * Gets the Waves object.
+     * @return Waves object
+     */
+    public Waves getWaves() {
+        return wave;
+    }
+
+    /**
+     * Gets the ManaBar object.
+     * @return ManaBar object
+     */
+    public ManaBar getManaBar() {
+        return wave.getManaBar();
+    }
+
+    /**
+     * Gets the towers that have been built.
+     * @return an ArrayList of Tower objects
+     */
+    public ArrayList<Tower> getTowers() {
+        return towers;
+    }
+
+    /**
+     * Gets the fireballs the towers have shot that are still in the air.
+     * @return the Fireballs object
+     */
+    public Fireballs getFireballs() {
+        return fireballs;
+    }
+
+    /**
+     * Gets the initial cost of building a tower (w/out any upgrades).
+     * @return initial tower cost
+     */
+    public int getInitialTowerCost() {
+        return initialTowerCost;
+    }
+
+    /**
+     * Gets the current cost of the mana pool spell.
+     * @return mana pool spell cost
+     */
+    public int getManaPoolSpellCost() {
+        return manaPoolSpellCost;
+    }
+
+    /**
+     * Gets the number of ticks the simulation has run for.
+     * @return number of ticks
+     */
+    public long getTicks() {
+        return timer.getTicks();
+    }
+
+    /**
+     * Gets the scheduler that runs timed events.
+     * @return Scheduler object
+     */
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Gets the game clock.
+     * @return Timer object
+     */
+    public Timer getTimer() {
+        return timer;
+    }
+}
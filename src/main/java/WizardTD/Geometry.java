@@ -0,0 +1,118 @@
+package WizardTD;
+
+/**
+ * Range and distance maths shared by towers, fireballs and the spatial grid. Everything works on primitives and compares
+ * squared distances, so nothing here allocates or takes a square root.
+ */
+public final class Geometry {
+    /**
+     * Not instantiable, only has static methods.
+     */
+    private Geometry() {
+    }
+
+    /**
+     * Gets the squared distance between two points.
+     * @param x1 x-coordinate of the first point
+     * @param y1 y-coordinate of the first point
+     * @param x2 x-coordinate of the second point
+     * @param y2 y-coordinate of the second point
+     * @return squared distance
+     */
+    public static long distanceSquared(int x1, int y1, int x2, int y2) {
+        long dx = x1 - x2;
+        long dy = y1 - y2;
+        return dx * dx + dy * dy;
+    }
+
+    /**
+     * Checks if a point is inside (or on the edge of) a circle.
+     * @param x x-coordinate of the point
+     * @param y y-coordinate of the point
+     * @param centerX x-coordinate of the centre of the circle
+     * @param centerY y-coordinate of the centre of the circle
+     * @param radius radius of the circle
+     * @return true if the point is in the circle
+     */
+    public static boolean pointInCircle(int x, int y, int centerX, int centerY, int radius) {
+        return distanceSquared(x, y, centerX, centerY) <= (long)radius * radius;
+    }
+
+    /**
+     * Checks if any of the 4 corners of a square are inside a circle (how towers decide a monster is in range).
+     * @param left x-coordinate of the square's top left corner
+     * @param top y-coordinate of the square's top left corner
+     * @param size width and height of the square
+     * @param centerX x-coordinate of the centre of the circle
+     * @param centerY y-coordinate of the centre of the circle
+     * @param radius radius of the circle
+     * @return true if a corner of the square is in the circle
+     */
+    public static boolean cornerInCircle(int left, int top, int size, int centerX, int centerY, int radius) {
+        return pointInCircle(left, top, centerX, centerY, radius)
+            || pointInCircle(left + size, top, centerX, centerY, radius)
+            || pointInCircle(left, top + size, centerX, centerY, radius)
+            || pointInCircle(left + size, top + size, centerX, centerY, radius);
+    }
+
+    /**
+     * Checks if a circle overlaps an axis-aligned rectangle, by finding the point of the rectangle closest to the centre of the circle.
+     * @param left x-coordinate of the rectangle's left edge
+     * @param top y-coordinate of the rectangle's top edge
+     * @param right x-coordinate of the rectangle's right edge
+     * @param bottom y-coordinate of the rectangle's bottom edge
+     * @param centerX x-coordinate of the centre of the circle
+     * @param centerY y-coordinate of the centre of the circle
+     * @param radius radius of the circle
+     * @return true if the circle and rectangle overlap
+     */
+    public static boolean circleIntersectsRect(int left, int top, int right, int bottom, int centerX, int centerY, int radius) {
+        int closestX = Math.max(left, Math.min(centerX, right));
+        int closestY = Math.max(top, Math.min(centerY, bottom));
+        return pointInCircle(closestX, closestY, centerX, centerY, radius);
+    }
+
+    /**
+     * Checks if a line segment touches an axis-aligned rectangle anywhere along its length, by clipping the segment to the
+     * rectangle's x range and then its y range. Used for fireballs, which can fly further in one tick than a monster is
+     * wide, so checking only where they end up could miss.
+     * @param x1 x-coordinate of the start of the segment
+     * @param y1 y-coordinate of the start of the segment
+     * @param x2 x-coordinate of the end of the segment
+     * @param y2 y-coordinate of the end of the segment
+     * @param left x-coordinate of the rectangle's left edge
+     * @param top y-coordinate of the rectangle's top edge
+     * @param right x-coordinate of the rectangle's right edge
+     * @param bottom y-coordinate of the rectangle's bottom edge
+     * @return true if the segment and rectangle overlap
+     */
+    public static boolean segmentIntersectsRect(float x1, float y1, float x2, float y2, float left, float top, float right, float bottom) {
+        // Fractions of the way along the segment where it enters and leaves the rectangle
+        float enter = 0;
+        float leave = 1;
+
+        float dx = x2 - x1;
+        if(dx == 0) {
+            if(x1 < left || x1 > right)
+                return false;
+        } else {
+            float t1 = (left - x1) / dx;
+            float t2 = (right - x1) / dx;
+            enter = Math.max(enter, Math.min(t1, t2));
+            leave = Math.min(leave, Math.max(t1, t2));
+        }
+
+        float dy = y2 - y1;
+        if(dy == 0) {
+            if(y1 < top || y1 > bottom)
+                return false;
+        } else {
+            float t1 = (top - y1) / dy;
+            float t2 = (bottom - y1) / dy;
+            enter = Math.max(enter, Math.min(t1, t2));
+            leave = Math.min(leave, Math.max(t1, t2));
+        }
+
+        return enter <= leave;
+    }
+}
@@ -1,45 +1,80 @@
-package WizardTD;
-
-import processing.core.PImage;
-import processing.core.PApplet;
-
-/**
- * Represents any tile that the game map is comprised of including grass, shrubs and path ways.
- */
-public class Landmark {
-    // Landmark coordinates
-    private int x;
-    private int y;
-    // Landmark image
-    private PImage sprite;
-
-    /**
-     * Constructs a Landmark object given x,y-coordinates and an image.
-     * @param x x-coordinate of this tile
-     * @param y y-coordinate of this tile
-     * @param sprite image of Landmark
-     */
-    public Landmark(int x, int y, PImage sprite) {
-        this.x = x;
-        this.y = y;
-        this.sprite = sprite;
-    }
-
-    /**
-     * Draws the Landmark tile onto the map.
-     * @param app the PApplet class of the game
-     */
-    public void draw(PApplet app) {
-        // Handling graphics
-        app.image(sprite, x, y);
-    }
-
-    /**
-     * Gets the location of the Landmark object.
-     * @return an int array containing the x,y-coordinates
-     */
-    public int[] getLocation() {
-        int[] location = {x, y};
-        return location;
-    }
+package WizardTD;
+
+import processing.core.PImage;
+import processing.core.PApplet;
+import processing.core.PGraphics;
+
+/**
+ * Represents any tile that the game map is comprised of including grass, shrubs and path ways.
+ */
+public class Landmark {
+    // Landmark coordinates
+    private int x;
+    private int y;
+    // Landmark coordinates as an x,y pair (made once, getLocation is called a lot)
+    private int[] location;
+    // Landmark image
+    private PImage sprite;
+
+    /**
+     * Constructs a Landmark object given x,y-coordinates and an image.
+     * @param x x-coordinate of this tile
+     * @param y y-coordinate of this tile
+     * @param sprite image of Landmark
+     */
+    public Landmark(int x, int y, PImage sprite) {
+        this.x = x;
+        this.y = y;
+        this.location = new int[] {x, y};
+        this.sprite = sprite;
+    }
+
+    /**
+     * Draws the Landmark tile onto the map.
+     * @param app the PApplet class of the game
+     */
+    public void draw(PApplet app) {
+        // Handling graphics
+        app.image(sprite, x, y);
+    }
+
+    /**
+     * Draws the Landmark tile onto an offscreen image (e.g. the map's terrain layer).
+     * @param graphics the image to draw on
+     */
+    public void draw(PGraphics graphics) {
+        graphics.image(sprite, x, y);
+    }
+
+    /**
+     * Changes the Landmark's image (e.g. when a path tile is joined up with a new neighbour).
+     * @param sprite new image of Landmark
+     */
+    public void setSprite(PImage sprite) {
+        this.sprite = sprite;
+    }
+
+    /**
+     * Gets the location of the Landmark object. The same array is returned every time, so it mustn't be changed.
+     * @return an int array containing the x,y-coordinates
+     */
+    public int[] getLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the x-coordinate of the Landmark object.
+     * @return x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinate of the Landmark object.
+     * @return y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package WizardTD;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A directory of compiled levels, each stored under the level file's name and the SHA-256 hash of its contents. Loading a
+ * level that's already been compiled memory-maps its cache file instead of parsing the level file and searching for
+ * paths, and editing a level file gives it a new hash, so a stale level is never loaded. Only the newest compiled version
+ * of each level file is kept: storing one deletes the others.
+ *
+ * The game's cache is .level-cache in the working directory (set -Dwizardtd.levelCache=... to put it somewhere else;
+ * the Gradle build points tests and benchmarks at build/tmp/level-cache).
+ */
+public class LevelCache {
+    // Directory used when none is given (can be changed with -Dwizardtd.levelCache=...)
+    private static final String DEFAULT_DIRECTORY = System.getProperty("wizardtd.levelCache", ".level-cache");
+    // Cache used by Maps
+    private static final LevelCache DEFAULT = new LevelCache(Paths.get(DEFAULT_DIRECTORY));
+
+    // Directory the compiled levels are stored in
+    private Path directory;
+
+    /**
+     * Constructs a LevelCache object given the directory to store compiled levels in (created when first needed).
+     * @param directory the cache directory
+     */
+    public LevelCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the cache used by Maps.
+     * @return the default LevelCache
+     */
+    public static LevelCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Loads a level, from the cache if it's been compiled before, otherwise compiling it and storing it in the cache. If
+     * the cache can't be read or written the level is just compiled.
+     * @param layout the level file
+     * @return a CompiledLevel object
+     */
+    public CompiledLevel load(String layout) {
+        Path file;
+        try {
+            file = getCacheFile(layout);
+        } catch (IOException e) {
+            // Level file can't be read (FileReader reports it)
+            return CompiledLevel.compile(layout);
+        }
+
+        if(Files.isRegularFile(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                CompiledLevel level = CompiledLevel.read(buffer);
+                if(level != null)
+                    return level;
+            } catch (IOException e) {
+                // Fall through and compile it again
+            }
+        }
+
+        CompiledLevel level = CompiledLevel.compile(layout);
+        store(file, level, layoutKey(layout));
+        return level;
+    }
+
+    /**
+     * Gets the cache file a level is (or would be) stored in.
+     * @param layout the level file
+     * @return path of the cache file
+     * @throws IOException if the level file can't be read
+     */
+    public Path getCacheFile(String layout) throws IOException {
+        return directory.resolve(layoutKey(layout) + "-" + sha256(Files.readAllBytes(Paths.get(layout))) + ".level");
+    }
+
+    /**
+     * Gets the part of a cache file's name that's the same for every version of a level file: the file's name, and a
+     * short hash of where it is (so level files with the same name in different directories don't clash).
+     * @param layout the level file
+     * @return start of the cache file names
+     */
+    private static String layoutKey(String layout) {
+        Path path = Paths.get(layout).toAbsolutePath().normalize();
+        String name = path.getFileName().toString().replaceAll("[^A-Za-z0-9._]", "_");
+        return name + "-" + sha256(path.toString().getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+    }
+
+    /**
+     * Gets the SHA-256 hash of some bytes.
+     * @param bytes the bytes to hash
+     * @return the hash in hex
+     */
+    private static String sha256(byte[] bytes) {
+        byte[] hash;
+        try {
+            hash = MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform has SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        StringBuilder hex = new StringBuilder();
+        for(byte b: hash)
+            hex.append(String.format("%02x", b));
+        return hex.toString();
+    }
+
+    /**
+     * Writes a compiled level to the cache. It's written to a temporary file first and moved into place, so a level is
+     * never read half written (e.g. by another game loading the same level). Older versions of the same level file are
+     * deleted, so editing a level doesn't leave its old cache files behind.
+     * @param file the cache file
+     * @param level the compiled level
+     * @param key start of the cache file names for the level file (see layoutKey)
+     */
+    private void store(Path file, CompiledLevel level, String key) {
+        try {
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, "level", ".tmp");
+            try {
+                try (OutputStream stream = Files.newOutputStream(temporary);
+                     DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+                    level.write(out);
+                }
+                Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(directory, key + "-*.level")) {
+                for(Path old: stale) {
+                    if(!old.equals(file))
+                        Files.deleteIfExists(old);
+                }
+            }
+        } catch (IOException e) {
+            // The cache is only there to save time, so the game carries on without it
+        }
+    }
+}
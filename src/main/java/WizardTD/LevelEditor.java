@@ -0,0 +1,113 @@
+package WizardTD;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+import processing.core.PApplet;
+
+/**
+ * Edits a Map in place: clicking a tile cycles it between grass, shrub and path, and the monsters' routes to the wizard
+ * house are shown straight away. The edited level can be written back to its level file.
+ */
+public class LevelEditor {
+    // Symbols used for each terrain in level files (see FileReader)
+    private static final char GRASS_SYMBOL = ' ';
+    private static final char SHRUB_SYMBOL = 'S';
+    private static final char PATH_SYMBOL = 'X';
+    private static final char WIZARD_HOUSE_SYMBOL = 'W';
+
+    // The map being edited
+    private Map map;
+
+    /**
+     * Constructs a LevelEditor object given the map to edit.
+     * @param map a Map object
+     */
+    public LevelEditor(Map map) {
+        this.map = map;
+    }
+
+    /**
+     * Changes the tile at a position on to the next terrain (grass, then shrub, then path, then back to grass). The
+     * wizard house can't be changed.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return true if a tile was changed
+     */
+    public boolean cycleTile(int x, int y) {
+        int tile = TileGrid.indexAt(x, y);
+        if(tile < 0)
+            return false;
+
+        int terrain = map.getTiles().get(tile);
+        if(terrain == TileGrid.GRASS)
+            map.setTile(tile, TileGrid.SHRUB);
+        else if(terrain == TileGrid.SHRUB)
+            map.setTile(tile, TileGrid.PATH);
+        else if(terrain == TileGrid.PATH)
+            map.setTile(tile, TileGrid.GRASS);
+        else
+            return false;
+        return true;
+    }
+
+    /**
+     * Indicates if monsters can get to the wizard house from at least one spawn point, so the level can be played.
+     * @return true if the level has a monster path
+     */
+    public boolean isPlayable() {
+        return !map.getMonsterPaths().isEmpty();
+    }
+
+    /**
+     * Gets the level in the level file format: 20 lines of 20 symbols.
+     * @return contents of the level file
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder();
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            int terrain = map.getTiles().get(tile);
+            if(terrain == TileGrid.SHRUB)
+                text.append(SHRUB_SYMBOL);
+            else if(terrain == TileGrid.PATH)
+                text.append(PATH_SYMBOL);
+            else if(terrain == TileGrid.WIZARD_HOUSE)
+                text.append(WIZARD_HOUSE_SYMBOL);
+            else
+                text.append(GRASS_SYMBOL);
+
+            if(tile % TileGrid.COLUMNS == TileGrid.COLUMNS - 1)
+                text.append('\n');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Writes the level back to the file the map was loaded from.
+     * @throws IOException if the file can't be written
+     */
+    public void save() throws IOException {
+        Files.write(Paths.get(map.getLayout()), toText().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Draws the routes the monsters will take from each spawn point to the wizard house.
+     * @param app the PApplet class of the game
+     */
+    public void draw(PApplet app) {
+        // Path coordinates are where the gremlin sprite is drawn, so go through the middle of it
+        int offset = Monster.SIZE / 2;
+        app.stroke(217, 31, 240);
+        app.strokeWeight(3);
+        for(ArrayList<ArrayList<Integer>> path: map.getMonsterPaths()) {
+            for(int i = 1; i < path.size(); i++) {
+                app.line(path.get(i - 1).get(0) + offset, path.get(i - 1).get(1) + offset,
+                    path.get(i).get(0) + offset, path.get(i).get(1) + offset);
+            }
+        }
+        app.strokeWeight(1);
+    }
+}
@@ -1,419 +1,471 @@
-package WizardTD;
-
-import processing.core.PApplet;
-import processing.core.PImage;
-
-import java.util.ArrayList;
-import java.util.Collections;
-
-/**
- * Brings together and manages all the elements that comprise the map and draws them on screen.
- */
-public class Map {
-    // Gremlin offset amount to center the 20x20 px gremlin sprite inside the 32x32 px path
-    private static final int GREMLIN_OFFSET = 6;
-
-    // Map level layout
-    private String layout;
-    // Landmark object for the wizard's house
-    private Landmark wizardHouse;
-    // ArrayList's of Landmark objects to store grass, shrubs & paths
-    private ArrayList<Landmark> grass = new ArrayList<>();
-    private ArrayList<Landmark> shrubs = new ArrayList<>();
-    private ArrayList<Landmark> paths = new ArrayList<>();
-    // Landmark images
-    private PImage grassImage;
-    private PImage shrubImage;
-    private PImage wizardImage;
-
-    // An ArrayList to store ArrayLists of path PImages for drawing the map
-    private ArrayList<ArrayList<PImage>> pathImages = new ArrayList<>();
-    // Store path locations for map design
-    private ArrayList<ArrayList<Integer>> pathCoordinates = new ArrayList<>();
-    // Store the spawn points and paths the monsters will take to the wizard house for each level
-    private ArrayList<ArrayList<ArrayList<Integer>>> monsterSpawn = new ArrayList<>();
-    private ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths = new ArrayList<>();
-    // Store wizard house location
-    private ArrayList<Integer> wizardLocation = new ArrayList<>();
-
-    /**
-     * Constructs a Map object given a layout name and grass, shrub, wizard house and path images.
-     * @param layout current layout name
-     * @param grassImage grass image
-     * @param shrubImage shrub image
-     * @param wizardImage wizard image
-     * @param pathImages path images
-     */
-    public Map(String layout, PImage grassImage, PImage shrubImage, PImage wizardImage, ArrayList<ArrayList<PImage>> pathImages) {
-        this.layout = layout;
-        this.grassImage = grassImage;
-        this.shrubImage = shrubImage;
-        this.wizardImage = wizardImage;
-        this.pathImages = pathImages;
-        // Setup all the resources needed to draw the map
-        this.setup();
-    }
-
-    /**
-     * Draws all elements of the map to the screen.
-     * @param app the PApplet class of the game
-     */
-    public void draw(PApplet app) {
-        // Handling graphics
-        grass.forEach(grass -> grass.draw(app));
-        shrubs.forEach(shrub -> shrub.draw(app));
-        paths.forEach(path -> path.draw(app));
-    }
-
-    /**
-     * Gets the paths that the monsters travel on.
-     * @return a multi-dimensional ArrayList of coordinates for paths that the monsters travel
-     */
-    public ArrayList<ArrayList<ArrayList<Integer>>> getMonsterPaths() {
-        return monsterPaths;
-    }
-
-    /**
-     * Gets the wizard house Landmark object.
-     * @return wizard house Landmark object
-     */
-    public Landmark getWizardHouse() {
-        return wizardHouse;
-    }
-
-    /**
-     * Gets the grass Landmark objects.
-     * @return an ArrayList of grass Landmark objects
-     */
-    public ArrayList<Landmark> getGrass() {
-        return grass;
-    }
-
-    /**
-     * Map setup for preparing Landmark tiles and monster spawn points.
-     */
-    public void setup() {
-        // Create FileReader object for level text file
-        FileReader f = new FileReader(layout);
-
-        // Populate ArrayLists for Landmark objects based on level text files
-        for(int i = 0; i < 20; i++) {
-            for(int j = 0; j < 20; j++) {
-                if(f.getSymbols()[i][j].equals(" ")) {
-                    grass.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, grassImage));
-                } else if(f.getSymbols()[i][j].equals("S")) {
-                    shrubs.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, shrubImage));
-                } else if(f.getSymbols()[i][j].equals("W")) {
-                    grass.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, grassImage));
-                    wizardLocation.add(j); wizardLocation.add(i);
-                    // Offset wizard house by 8 pixels to center it in the cell
-                    wizardHouse = new Landmark(App.CELLSIZE * j - 8, App.CELLSIZE * i + App.TOPBAR - 8, wizardImage);
-                } else if(f.getSymbols()[i][j].equals("X")) {
-                    // Populate the pathCoordinates
-                    ArrayList<Integer> coordinates = new ArrayList<Integer>();
-                    coordinates.add(j); coordinates.add(i);
-                    pathCoordinates.add(coordinates);
-                }
-            }
-        }
-
-    // Populate paths ArrayList with Landmark objects
-    for(int i = 0; i < 20; i++) {
-        for(int j = 0; j < 20; j++) {
-            ArrayList<Integer> left = new ArrayList<Integer>();
-            ArrayList<Integer> right = new ArrayList<Integer>();
-            ArrayList<Integer> above = new ArrayList<Integer>();
-            ArrayList<Integer> below = new ArrayList<Integer>();
-
-            left.add(j-1); left.add(i);
-            right.add(j+1); right.add(i);
-            above.add(j); above.add(i-1);
-            below.add(j); below.add(i+1);
-
-            if(f.getSymbols()[i][j].equals("X")) {
-                // If there's a path to the left, to the right, above and below, add a 4-way intersection
-                if(pathCoordinates.contains(left) && pathCoordinates.contains(right) && pathCoordinates.contains(above) && pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(3).get(0)));
-                // If there's a path to the left, to the right and below, add a 3-way intersection
-                } else if(pathCoordinates.contains(left) && pathCoordinates.contains(right) && pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(2).get(0)));
-                // If there's a path to the left, to the right and above, add a rotated 3-way intersection
-                } else if(pathCoordinates.contains(left) && pathCoordinates.contains(right) && pathCoordinates.contains(above)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(2).get(2)));
-                // If there's a path to the left, above and below, add a rotated 3-way intersection
-                } else if(pathCoordinates.contains(left) && pathCoordinates.contains(above) && pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(2).get(1)));
-                // If there's a path to the right, above and below, add a rotated 3-way intersection
-                } else if(pathCoordinates.contains(right) && pathCoordinates.contains(above) && pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(2).get(3)));
-                // If there's a path to the left and below, add a turn
-                } else if(pathCoordinates.contains(left) && pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(1).get(0)));
-                // If there's a path to the right and below, add a rotated turn
-                } else if(pathCoordinates.contains(right) && pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(1).get(3)));
-                // If there's a path to the right and above, add a rotated turn
-                } else if(pathCoordinates.contains(right) && pathCoordinates.contains(above)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(1).get(2)));
-                // If there's a path to the left and above, add a rotated turn
-                } else if(pathCoordinates.contains(left) && pathCoordinates.contains(above)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(1).get(1)));
-                // If there's a path above and below, or just above or just below, add a rotated straight path
-                } else if(pathCoordinates.contains(above) && pathCoordinates.contains(below) || pathCoordinates.contains(above) || pathCoordinates.contains(below)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(0).get(1)));
-                // If there's a path to the left and to the right, or just left or just right, add a straight path
-                } else if(pathCoordinates.contains(left) && pathCoordinates.contains(right) || pathCoordinates.contains(left) || pathCoordinates.contains(right)) {
-                    paths.add(new Landmark(App.CELLSIZE * j, App.CELLSIZE * i + App.TOPBAR, pathImages.get(0).get(0)));
-                }
-            }
-        }
-    }
-
-        // Populate monsterSpawn arraylist with spawn points for entering paths
-        for(ArrayList<Integer> position: pathCoordinates) {
-            if(position.contains(0) || position.contains(19)) {
-                // Create an arraylist to store an arraylist of coordinates for a path to the wizard house
-                ArrayList<ArrayList<Integer>> coordArray = new ArrayList<>();
-                // Create an arraylist to store a pair of x,y-coordinates
-                ArrayList<Integer> coordinates = new ArrayList<>();
-                // Add starting positions of gremlins to coordinates arraylist but subtract 1 from 0 and/or add 1 to 19 so the gremlin spawns outside the map
-                if(position.get(0) == 0) {
-                    coordinates.add(position.get(0) - 1); coordinates.add(position.get(1));
-                } else if (position.get(0) == 19) {
-                    coordinates.add(position.get(0) + 1); coordinates.add(position.get(1));
-                } else if(position.get(1) == 0) {
-                    coordinates.add(position.get(0)); coordinates.add(position.get(1) - 1);
-                } else if (position.get(1) == 19) {
-                    coordinates.add(position.get(0)); coordinates.add(position.get(1) + 1);
-                }
-                coordArray.add(coordinates);
-                monsterSpawn.add(coordArray);
-            }
-        }
-
-        // Call the algorithm to find paths to the wizard's house
-        monsterPaths = findPaths(f);
-    }
-
-    /**
-     * Algorithm that finds all available paths to the wizard house.
-     * @param file FileReader object containing path and other level information in a 20 x 20 array
-     */
-    @SuppressWarnings("unchecked") // Suppress unchecked warning for ArrayList.clone()
-    public ArrayList<ArrayList<ArrayList<Integer>>> findPaths(FileReader file) {
-        //FileReader f = new FileReader("level3.txt");
-        ArrayList<Integer> wizardLocation = new ArrayList<>();
-        ArrayList<ArrayList<Integer>> pathCoordinates = new ArrayList<>();
-
-        // Populate ArrayLists for Landmark objects based on level text files
-        for(int i = 0; i < 20; i++) {
-            for(int j = 0; j < 20; j++) {
-                if(file.getSymbols()[i][j].equals(" ")) {
-                } else if(file.getSymbols()[i][j].equals("S")) {
-                } else if(file.getSymbols()[i][j].equals("W")) {
-                    wizardLocation.add(j); wizardLocation.add(i);
-                } else if(file.getSymbols()[i][j].equals("X")) {
-                    // Populate the pathCoordinates
-                    ArrayList<Integer> coordinates = new ArrayList<Integer>();
-                    coordinates.add(j); coordinates.add(i);
-                    pathCoordinates.add(coordinates);
-                }
-            }
-        }
-
-        // Create arraylists to store gremlin spawn points and first path tile
-        ArrayList<ArrayList<ArrayList<Integer>>> monsterSpawn = new ArrayList<>();
-        ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths = new ArrayList<>();
-
-        // Populate monsterSpawn and monsterPaths arraylists
-        for(ArrayList<Integer> position: pathCoordinates) {
-            if(position.contains(0) || position.contains(19)) {
-                // Create an arraylist to store an arraylist of coordinates for a path to the wizard house
-                ArrayList<ArrayList<Integer>> coordArray = new ArrayList<>();
-                ArrayList<ArrayList<Integer>> coordArray2 = new ArrayList<>();
-                // Create an arraylist to store a pair of x,y-coordinates
-                ArrayList<Integer> coordinates = new ArrayList<>();
-                ArrayList<Integer> coordinates2 = new ArrayList<>();
-                // Add starting positions of gremlins to coordinates arraylist but subtract 1 from 0 and/or add 1 to 19 so the gremlin spawns outside the map
-                if(position.get(0) == 0) {
-                    coordinates.add(position.get(0) - 1); coordinates.add(position.get(1));
-                    coordinates2.add(position.get(0)); coordinates2.add(position.get(1));
-                } else if (position.get(0) == 19) {
-                    coordinates.add(position.get(0) + 1); coordinates.add(position.get(1));
-                    coordinates2.add(position.get(0)); coordinates2.add(position.get(1));
-                } else if(position.get(1) == 0) {
-                    coordinates.add(position.get(0)); coordinates.add(position.get(1) - 1);
-                    coordinates2.add(position.get(0)); coordinates2.add(position.get(1));
-                } else if (position.get(1) == 19) {
-                    coordinates.add(position.get(0)); coordinates.add(position.get(1) + 1);
-                    coordinates2.add(position.get(0)); coordinates2.add(position.get(1));
-                }
-                coordArray.add(coordinates);
-                coordArray2.add(coordinates2);
-                monsterSpawn.add(coordArray);
-                monsterPaths.add(coordArray2);
-            }
-        }
-
-        // Create an arraylist of turning points and populate it
-        ArrayList<ArrayList<Integer>> forks = new ArrayList<>();
-        
-        for(int i = 0; i < 20; i++) {
-            for(int j = 0; j < 20; j++) {
-                ArrayList<Integer> left = new ArrayList<Integer>();
-                ArrayList<Integer> right = new ArrayList<Integer>();
-                ArrayList<Integer> above = new ArrayList<Integer>();
-                ArrayList<Integer> below = new ArrayList<Integer>();
-
-                left.add(j-1); left.add(i);
-                right.add(j+1); right.add(i);
-                above.add(j); above.add(i-1);
-                below.add(j); below.add(i+1);
-
-                if(file.getSymbols()[i][j].equals("X")) {
-                    // If there's a path to the left, to the right, above and below, add a 4-way intersection
-                    if(pathCoordinates.contains(left) && pathCoordinates.contains(right) && pathCoordinates.contains(above) && pathCoordinates.contains(below)) {
-                        ArrayList<Integer> coordinates = new ArrayList<>();
-                        coordinates.add(j); coordinates.add(i);
-                        forks.add(coordinates);
-                    // If there's a path to the left, to the right and below, add a 3-way intersection
-                    } else if(pathCoordinates.contains(left) && pathCoordinates.contains(right) && pathCoordinates.contains(below)) {
-                        ArrayList<Integer> coordinates = new ArrayList<>();
-                        coordinates.add(j); coordinates.add(i);
-                        forks.add(coordinates);
-                    // If there's a path to the left, to the right and above, add a 3-way intersection
-                    } else if(pathCoordinates.contains(left) && pathCoordinates.contains(right) && pathCoordinates.contains(above)) {
-                        ArrayList<Integer> coordinates = new ArrayList<>();
-                        coordinates.add(j); coordinates.add(i);
-                        forks.add(coordinates);
-                    // If there's a path to the left, above and below, add a 3-way intersection
-                    } else if(pathCoordinates.contains(left) && pathCoordinates.contains(above) && pathCoordinates.contains(below)) {
-                        ArrayList<Integer> coordinates = new ArrayList<>();
-                        coordinates.add(j); coordinates.add(i);
-                        forks.add(coordinates);
-                    // If there's a path to the right, above and below, add a 3-way intersection
-                    } else if(pathCoordinates.contains(right) && pathCoordinates.contains(above) && pathCoordinates.contains(below)) {
-                        ArrayList<Integer> coordinates = new ArrayList<>();
-                        coordinates.add(j); coordinates.add(i);
-                        forks.add(coordinates);
-                    }
-                }
-            }
-        }
-
-        // Used to locate up, down, left and right direction cells
-        int[] dr = {-1, 1, 0, 0};
-        int[] dc = {0, 0, 1, -1};
-        // Create a blacklist to mark paths/routes you've already found
-        boolean[][] blacklist = new boolean[20][20];
-        ArrayList<ArrayList<Integer>> pathCoordinates2 = new ArrayList<>();
-        boolean complete = false;
-        // Create a variable to keep track of how many paths are found
-        int noOfPaths = monsterPaths.size();
-          
-        while(noOfPaths > 0) {
-            // Make sure to clear pathCoordinates2 on each iteration to make room for a new path search
-            pathCoordinates2.clear();
-            complete = false;
-            // The search will begin at the wizard house's location
-            int lastx = wizardLocation.get(0);
-            int lasty = wizardLocation.get(1);
-            // Create placeholder variables to store lastx and lasty (lastlastx and lastlasty) at the end of each iteration of pathCoordinates for the adjacency search
-            // to prevent the adjacency search from getting stuck on the same cell (infinite loop)
-            int lastlastx = -1;
-            int lastlasty = -1;
-            // Create a visited array to mark cells that are visited during adjacency search below
-            boolean[] visited = new boolean[pathCoordinates.size()];
-
-            // Iterate through pathCoordinates and do an adjacency search - looking for adjacent path cells
-            while(!complete){
-                for(int i = 0; i < pathCoordinates.size(); i++) {
-                    for(int j = 0; j < 4; j++) {
-                        int xx = lastx + dr[j];
-                        int yy = lasty + dc[j];
-
-                        ArrayList<Integer> coos = new ArrayList<>();
-                        coos.add(xx);
-                        coos.add(yy);
-
-                        if(xx < 0 || yy < 0 || xx > 19 || yy > 19) {
-                            complete = true;
-                            break;
-                        } else if (visited[i]) {
-                            continue;
-                        } else if (blacklist[pathCoordinates.get(i).get(0)][pathCoordinates.get(i).get(1)]) {
-                            continue;
-                        } else if (pathCoordinates.get(i).get(0) == xx && pathCoordinates.get(i).get(1) == yy) {
-                            ArrayList<Integer> coordinates = new ArrayList<>();
-                            coordinates.add(pathCoordinates.get(i).get(0));
-                            coordinates.add(pathCoordinates.get(i).get(1));
-                            pathCoordinates2.add(coordinates);
-                            visited[i] = true;
-                            lastx = pathCoordinates.get(i).get(0);
-                            lasty = pathCoordinates.get(i).get(1);
-                            continue;
-                        }
-                    }
-
-                    if(complete) {
-                        break;
-                    }
-                }
-                if(lastlastx == lastx && lastlasty == lasty) {
-                    break;
-                }
-                lastlastx = lastx;
-                lastlasty = lasty;
-            }
-            // Reverse the arraylist (so the spawn point is at index 0 and the wizard house at the last index)
-            Collections.reverse(pathCoordinates2);
-
-            // If pathCoordinates2 = path from a spawn point to the wizard's location, store it in monsterPaths
-            for(ArrayList<ArrayList<Integer>> arr: monsterPaths) {
-                if(arr.get(0).equals((pathCoordinates2.get(0)))) {
-                    noOfPaths--;
-                    arr.clear();
-                    // Add the gremlin's spawn point (outside the map)
-                    arr.add(monsterSpawn.get(monsterPaths.indexOf(arr)).get(0));
-                    // Add the path
-                    arr.addAll(pathCoordinates2);
-                    // Add the wizard house location - need to make a deep copy first so the coordinates are in a different memory location for use later in Gremlin.java
-                    ArrayList<Integer> wizard = (ArrayList<Integer>)wizardLocation.clone();
-                    arr.add(wizard);
-                }
-            }
-           
-            // Find the nearest fork in the path to the spawn point and blacklist the path cell next to this fork (closest to the spawn point) so this path isn't searched again
-            boolean forkFound = false;
-            for(int i = 0; i < pathCoordinates2.size(); i++) {
-                for(ArrayList<Integer> fork: forks) {
-                    if(pathCoordinates2.get(i).equals(fork)) {
-                        // Try to blacklist a path next to the fork but in the direction of the spawn point
-                        try {
-                            blacklist[pathCoordinates2.get(i-1).get(0)][pathCoordinates2.get(i-1).get(1)] = true;
-                        // If all paths around the fork are blacklist, then blacklist the fork itself (so it's not added to any new paths) and remove it from the forks arraylist (so we don't bother looking for it again)
-                        } catch (Exception e) {
-                            blacklist[pathCoordinates2.get(i).get(0)][pathCoordinates2.get(i).get(1)] = true;
-                            //forks.remove(fork);
-                        }
-                        forkFound = true;
-                        break;
-                    }
-                }
-                if(forkFound) {
-                    break;
-                }
-            }
-        }
-
-        for(ArrayList<ArrayList<Integer>> arr: monsterPaths) {
-            for(ArrayList<Integer> coords: arr) {
-                coords.set(0, coords.get(0) * App.CELLSIZE + GREMLIN_OFFSET);
-                coords.set(1, coords.get(1) * App.CELLSIZE + GREMLIN_OFFSET + App.TOPBAR);
-            }
-        }
-
-        return monsterPaths;
-    }
-}
-    
+package WizardTD;
+
+import processing.core.PApplet;
+import processing.core.PGraphics;
+import processing.core.PImage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Brings together and manages all the elements that comprise the map and draws them on screen.
+ */
+public class Map {
+    // Gremlin offset amount to center the 20x20 px gremlin sprite inside the 32x32 px path
+    private static final int GREMLIN_OFFSET = 6;
+
+    // Map level layout
+    private String layout;
+    // Landmark object for the wizard's house
+    private Landmark wizardHouse;
+    // ArrayList's of Landmark objects to store grass, shrubs & paths
+    private ArrayList<Landmark> grass = new ArrayList<>();
+    private ArrayList<Landmark> shrubs = new ArrayList<>();
+    private ArrayList<Landmark> paths = new ArrayList<>();
+    // The grass or shrub, and the path, Landmark drawn on each tile (null if none), so an edited tile's can be found
+    private Landmark[] terrainLandmarks = new Landmark[TileGrid.COLUMNS * TileGrid.ROWS];
+    private Landmark[] pathLandmarks = new Landmark[TileGrid.COLUMNS * TileGrid.ROWS];
+    // The grass, shrubs and paths drawn once onto an offscreen image (the terrain only changes when the level is edited),
+    // and whether it needs drawing again
+    private PGraphics terrainLayer;
+    private boolean terrainLayerStale = true;
+    // Landmark images
+    private PImage grassImage;
+    private PImage shrubImage;
+    private PImage wizardImage;
+
+    // An ArrayList to store ArrayLists of path PImages for drawing the map
+    private ArrayList<ArrayList<PImage>> pathImages = new ArrayList<>();
+    // Store the paths the monsters will take to the wizard house from each spawn point
+    private ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths = new ArrayList<>();
+    // The monster paths compiled into polylines (what monsters actually walk along)
+    private ArrayList<MonsterPath> compiledPaths = new ArrayList<>();
+    // Store wizard house location
+    private ArrayList<Integer> wizardLocation = new ArrayList<>();
+    // What's on each tile (towers are added by each game to its own copy)
+    private TileGrid tiles;
+    // Distance from each path tile to the wizard house (what the monster paths are found from)
+    private FlowField flowField;
+    // Paths found for monsters partway along, by the tile they're walking towards and the direction they're walking in
+    // (see findPathFrom), so monsters on the same stretch share one. Cleared whenever a tile is edited
+    private MonsterPath[] pathsFrom = new MonsterPath[TileGrid.COLUMNS * TileGrid.ROWS * 5];
+
+    /**
+     * Constructs a Map object given a layout name and grass, shrub, wizard house and path images.
+     * @param layout current layout name
+     * @param grassImage grass image
+     * @param shrubImage shrub image
+     * @param wizardImage wizard image
+     * @param pathImages path images
+     */
+    public Map(String layout, PImage grassImage, PImage shrubImage, PImage wizardImage, ArrayList<ArrayList<PImage>> pathImages) {
+        this.layout = layout;
+        this.grassImage = grassImage;
+        this.shrubImage = shrubImage;
+        this.wizardImage = wizardImage;
+        this.pathImages = pathImages;
+        // Setup all the resources needed to draw the map
+        this.setup();
+    }
+
+    /**
+     * Constructs a Map object without any images, used when running the game headless (no window to draw to).
+     * @param layout current layout name
+     */
+    public Map(String layout) {
+        this(layout, null, null, null, null);
+    }
+
+    /**
+     * Draws all elements of the map to the screen. The terrain is drawn onto an offscreen image the first time (and again
+     * after the level is edited), and after that it's drawn with one image call per frame rather than one per tile.
+     * @param app the PApplet class of the game
+     */
+    public void draw(PApplet app) {
+        if(terrainLayer == null)
+            terrainLayer = app.createGraphics(TileGrid.COLUMNS * App.CELLSIZE, TileGrid.ROWS * App.CELLSIZE);
+
+        if(terrainLayerStale) {
+            terrainLayer.beginDraw();
+            // Landmark coordinates include the top bar, which isn't part of the layer
+            terrainLayer.translate(0, -App.TOPBAR);
+            grass.forEach(grass -> grass.draw(terrainLayer));
+            shrubs.forEach(shrub -> shrub.draw(terrainLayer));
+            paths.forEach(path -> path.draw(terrainLayer));
+            terrainLayer.endDraw();
+            terrainLayerStale = false;
+        }
+
+        // Handling graphics
+        app.image(terrainLayer, 0, App.TOPBAR);
+    }
+
+    /**
+     * Gets the paths that the monsters travel on.
+     * @return a multi-dimensional ArrayList of coordinates for paths that the monsters travel
+     */
+    public ArrayList<ArrayList<ArrayList<Integer>>> getMonsterPaths() {
+        return monsterPaths;
+    }
+
+    /**
+     * Gets the paths that the monsters travel on, compiled into polylines.
+     * @return an ArrayList of MonsterPath objects (in the same order as getMonsterPaths)
+     */
+    public ArrayList<MonsterPath> getCompiledPaths() {
+        return compiledPaths;
+    }
+
+    /**
+     * Gets the level file the map was loaded from.
+     * @return the layout name
+     */
+    public String getLayout() {
+        return layout;
+    }
+
+    /**
+     * Gets the distance from each path tile to the wizard house.
+     * @return a FlowField object
+     */
+    public FlowField getFlowField() {
+        return flowField;
+    }
+
+    /**
+     * Gets the wizard house Landmark object.
+     * @return wizard house Landmark object
+     */
+    public Landmark getWizardHouse() {
+        return wizardHouse;
+    }
+
+    /**
+     * Gets the grass Landmark objects.
+     * @return an ArrayList of grass Landmark objects
+     */
+    public ArrayList<Landmark> getGrass() {
+        return grass;
+    }
+
+    /**
+     * Gets what's on each tile of the map (without any towers).
+     * @return a TileGrid object
+     */
+    public TileGrid getTiles() {
+        return tiles;
+    }
+
+    /**
+     * Gets a path image given the path type and its rotation.
+     * @param type path type (0 = straight, 1 = turn, 2 = 3-way intersection, 3 = 4-way intersection)
+     * @param rotation index of the rotated image for this path type
+     * @return the path image, or null if the map has no images (headless)
+     */
+    private PImage getPathImage(int type, int rotation) {
+        if(pathImages == null)
+            return null;
+        return pathImages.get(type).get(rotation);
+    }
+
+    /**
+     * Map setup for preparing Landmark tiles and monster spawn points. The level is loaded from the level cache, so the
+     * level file is only parsed and searched for paths the first time it's loaded (or after it's been changed).
+     */
+    public void setup() {
+        CompiledLevel level = LevelCache.getDefault().load(layout);
+        tiles = level.getTiles();
+        flowField = level.getFlowField();
+
+        // Populate ArrayLists for Landmark objects from the level's tiles
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            int x = TileGrid.getX(tile);
+            int y = TileGrid.getY(tile);
+            if(tiles.get(tile) == TileGrid.GRASS) {
+                terrainLandmarks[tile] = new Landmark(x, y, grassImage);
+                grass.add(terrainLandmarks[tile]);
+            } else if(tiles.get(tile) == TileGrid.SHRUB) {
+                terrainLandmarks[tile] = new Landmark(x, y, shrubImage);
+                shrubs.add(terrainLandmarks[tile]);
+            } else if(tiles.get(tile) == TileGrid.WIZARD_HOUSE) {
+                terrainLandmarks[tile] = new Landmark(x, y, grassImage);
+                grass.add(terrainLandmarks[tile]);
+                wizardLocation.add(tile % TileGrid.COLUMNS); wizardLocation.add(tile / TileGrid.COLUMNS);
+                // Offset wizard house by 8 pixels to center it in the cell
+                wizardHouse = new Landmark(x - 8, y - 8, wizardImage);
+            }
+        }
+
+        // Populate paths ArrayList with Landmark objects, each drawn with the image that joins it up with its neighbours
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            int image = level.getPathImage(tile);
+            if(image >= 0) {
+                pathLandmarks[tile] = new Landmark(TileGrid.getX(tile), TileGrid.getY(tile), getPathImage(image / 4, image % 4));
+                paths.add(pathLandmarks[tile]);
+            }
+        }
+
+        // The paths to the wizard's house
+        monsterPaths = level.getMonsterPaths();
+        for(ArrayList<ArrayList<Integer>> path: monsterPaths)
+            compiledPaths.add(new MonsterPath(path));
+    }
+
+    /**
+     * Changes what's on a tile (used by the level editor). Only the tile and its four neighbours are given new path
+     * images, only the part of the flow field that the change affects is worked out again, and only the monster paths
+     * that go through that part are walked again. Games already using the map see the change once they're told about it
+     * (see GameSimulation.applyMapEdits).
+     * @param tile index of the tile
+     * @param terrain TileGrid.GRASS, TileGrid.SHRUB or TileGrid.PATH
+     */
+    public void setTile(int tile, int terrain) {
+        // The wizard house stays where it is
+        if(tiles.get(tile) == terrain || tiles.get(tile) == TileGrid.WIZARD_HOUSE)
+            return;
+
+        // Swap the grass or shrub drawn on the tile
+        if(terrainLandmarks[tile] != null) {
+            (tiles.get(tile) == TileGrid.GRASS ? grass : shrubs).remove(terrainLandmarks[tile]);
+            terrainLandmarks[tile] = null;
+        }
+        tiles.set(tile, terrain);
+        if(terrain == TileGrid.GRASS) {
+            terrainLandmarks[tile] = new Landmark(TileGrid.getX(tile), TileGrid.getY(tile), grassImage);
+            addInTileOrder(grass, terrainLandmarks[tile]);
+        } else if(terrain == TileGrid.SHRUB) {
+            terrainLandmarks[tile] = new Landmark(TileGrid.getX(tile), TileGrid.getY(tile), shrubImage);
+            addInTileOrder(shrubs, terrainLandmarks[tile]);
+        }
+
+        // Join the paths up again around the tile
+        int column = tile % TileGrid.COLUMNS;
+        int row = tile / TileGrid.COLUMNS;
+        updatePathLandmark(tile);
+        if(column > 0)
+            updatePathLandmark(tile - 1);
+        if(column < TileGrid.COLUMNS - 1)
+            updatePathLandmark(tile + 1);
+        if(row > 0)
+            updatePathLandmark(tile - TileGrid.COLUMNS);
+        if(row < TileGrid.ROWS - 1)
+            updatePathLandmark(tile + TileGrid.COLUMNS);
+
+        // The terrain layer is drawn again next frame, and paths from partway along are found again
+        terrainLayerStale = true;
+        Arrays.fill(pathsFrom, null);
+
+        // Repair the flow field, then walk the path from each spawn point again if it goes through a tile whose way down
+        // may have changed (the rest would come out the same, so they're kept). Paths are kept in spawn point order
+        flowField.update(tiles, tile);
+        ArrayList<ArrayList<ArrayList<Integer>>> newPaths = new ArrayList<>();
+        ArrayList<MonsterPath> newCompiledPaths = new ArrayList<>();
+        int old = 0;
+        for(int index = 0; index < TileGrid.COLUMNS * TileGrid.ROWS; index++) {
+            boolean hadPath = old < monsterPaths.size() && tileOf(monsterPaths.get(old).get(1)) == index;
+            if(hadPath)
+                old++;
+            if(!flowField.isSpawnPoint(index))
+                continue;
+
+            if(hadPath && !isAffected(monsterPaths.get(old - 1), flowField)) {
+                newPaths.add(monsterPaths.get(old - 1));
+                newCompiledPaths.add(compiledPaths.get(old - 1));
+            } else {
+                ArrayList<ArrayList<Integer>> path = findPath(flowField, index);
+                newPaths.add(path);
+                newCompiledPaths.add(new MonsterPath(path));
+            }
+        }
+        monsterPaths = newPaths;
+        compiledPaths = newCompiledPaths;
+    }
+
+    /**
+     * Indicates if a monster path goes through a tile whose way down the last flow field update may have changed.
+     * @param path pixel coordinates of the path (see findPaths)
+     * @param flowField the updated flow field
+     * @return true if the path needs walking again
+     */
+    private static boolean isAffected(ArrayList<ArrayList<Integer>> path, FlowField flowField) {
+        // The first point is off the map, where the monsters spawn
+        for(int i = 1; i < path.size(); i++) {
+            if(flowField.isAffected(tileOf(path.get(i))))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gives a tile the path image that joins it up with its neighbours (or takes its path away if it's no longer path).
+     * @param tile index of the tile
+     */
+    private void updatePathLandmark(int tile) {
+        int image = CompiledLevel.pathImageAt(tiles, tile);
+        if(image < 0) {
+            if(pathLandmarks[tile] != null) {
+                paths.remove(pathLandmarks[tile]);
+                pathLandmarks[tile] = null;
+            }
+        } else if(pathLandmarks[tile] != null) {
+            pathLandmarks[tile].setSprite(getPathImage(image / 4, image % 4));
+        } else {
+            pathLandmarks[tile] = new Landmark(TileGrid.getX(tile), TileGrid.getY(tile), getPathImage(image / 4, image % 4));
+            paths.add(pathLandmarks[tile]);
+        }
+    }
+
+    /**
+     * Adds a Landmark to a list kept in tile order (left to right, then top to bottom, like the level file).
+     * @param landmarks the list
+     * @param landmark the Landmark to add
+     */
+    private static void addInTileOrder(ArrayList<Landmark> landmarks, Landmark landmark) {
+        int tile = TileGrid.indexAt(landmark.getX(), landmark.getY());
+        int i = landmarks.size();
+        while(i > 0 && TileGrid.indexAt(landmarks.get(i - 1).getX(), landmarks.get(i - 1).getY()) > tile)
+            i--;
+        landmarks.add(i, landmark);
+    }
+
+    /**
+     * Finds the path to the wizard house from every spawn point (a path tile on the edge of the map) by walking downhill
+     * through the flow field, so it takes one step per tile of the path.
+     * @param flowField distance from each tile to the wizard house
+     * @return a multi-dimensional ArrayList of pixel coordinates for each path, from just outside the map (where the
+     * monsters spawn) to the wizard house
+     */
+    public static ArrayList<ArrayList<ArrayList<Integer>>> findPaths(FlowField flowField) {
+        ArrayList<ArrayList<ArrayList<Integer>>> monsterPaths = new ArrayList<>();
+
+        for(int index = 0; index < TileGrid.COLUMNS * TileGrid.ROWS; index++) {
+            if(flowField.isSpawnPoint(index))
+                monsterPaths.add(findPath(flowField, index));
+        }
+
+        return monsterPaths;
+    }
+
+    /**
+     * Finds the path to the wizard house from one spawn point by walking downhill through the flow field.
+     * @param flowField distance from each tile to the wizard house
+     * @param index index of the spawn point's tile
+     * @return pixel coordinates of the path, from just outside the map to the wizard house
+     */
+    private static ArrayList<ArrayList<Integer>> findPath(FlowField flowField, int index) {
+        int column = index % TileGrid.COLUMNS;
+        int row = index / TileGrid.COLUMNS;
+        ArrayList<ArrayList<Integer>> path = new ArrayList<>();
+
+        // Gremlins spawn just outside the map, next to the edge tile
+        if(column == 0)
+            path.add(pathPoint(column - 1, row));
+        else if(column == TileGrid.COLUMNS - 1)
+            path.add(pathPoint(column + 1, row));
+        else if(row == 0)
+            path.add(pathPoint(column, row - 1));
+        else
+            path.add(pathPoint(column, row + 1));
+
+        // Then follow the path tiles to the wizard house
+        walk(flowField, path, index, -1);
+        return path;
+    }
+
+    /**
+     * Finds the way to the wizard house for a monster partway along a path, after the level has been edited. The
+     * monster carries on to the next tile it was walking towards, then walks downhill through the flow field from there,
+     * so it doesn't jump about. The path starts from the tile the monster is walking from, so every monster between the
+     * same two tiles shares one path (found once per edit); a monster's distance along it is how far it is from the
+     * path's start. A monster standing still (on the wizard house) gets a path starting from its tile.
+     * @param x monster's x-coordinate
+     * @param y monster's y-coordinate
+     * @param directionX x part of the direction the monster is walking in
+     * @param directionY y part of the direction the monster is walking in
+     * @return the path, or null if the tile the monster is walking towards can't reach the wizard house
+     */
+    public MonsterPath findPathFrom(float x, float y, float directionX, float directionY) {
+        int stepX = Math.round(directionX);
+        int stepY = Math.round(directionY);
+        int column = nextAlong((x - GREMLIN_OFFSET) / App.CELLSIZE, stepX);
+        int row = nextAlong((y - GREMLIN_OFFSET - App.TOPBAR) / App.CELLSIZE, stepY);
+        if(column < 0 || column >= TileGrid.COLUMNS || row < 0 || row >= TileGrid.ROWS)
+            return null;
+        int tile = row * TileGrid.COLUMNS + column;
+        if(flowField.getDistance(tile) == FlowField.UNREACHABLE)
+            return null;
+
+        // Left, right, down, up (like FlowField's neighbours) or standing still
+        int direction = stepX < 0 ? 0 : stepX > 0 ? 1 : stepY > 0 ? 2 : stepY < 0 ? 3 : 4;
+        int key = tile * 5 + direction;
+        if(pathsFrom[key] != null)
+            return pathsFrom[key];
+
+        // Start from the tile it's coming from (which may be off the map), so it goes straight on where it can
+        ArrayList<ArrayList<Integer>> path = new ArrayList<>();
+        int previousColumn = column - stepX;
+        int previousRow = row - stepY;
+        int previous = -1;
+        if(direction != 4) {
+            path.add(pathPoint(previousColumn, previousRow));
+            if(previousColumn >= 0 && previousColumn < TileGrid.COLUMNS && previousRow >= 0 && previousRow < TileGrid.ROWS)
+                previous = previousRow * TileGrid.COLUMNS + previousColumn;
+        }
+        walk(flowField, path, tile, previous);
+        pathsFrom[key] = new MonsterPath(path);
+        return pathsFrom[key];
+    }
+
+    /**
+     * Gets the column (or row) of the next tile along a monster's way.
+     * @param position monster's position in tiles
+     * @param direction direction the monster is walking in along the same axis
+     * @return the column or row
+     */
+    private static int nextAlong(float position, int direction) {
+        // Allow for rounding, so a monster on a tile isn't taken to be just past it
+        if(direction > 0)
+            return (int)Math.ceil(position - 0.001f);
+        if(direction < 0)
+            return (int)Math.floor(position + 0.001f);
+        return Math.round(position);
+    }
+
+    /**
+     * Follows the path tiles downhill from a tile to the wizard house, adding each tile's coordinates to a path.
+     * @param flowField distance from each tile to the wizard house
+     * @param path pixel coordinates to add to
+     * @param tile index of the tile to start from
+     * @param previous index of the tile before it (-1 if there isn't one)
+     */
+    private static void walk(FlowField flowField, ArrayList<ArrayList<Integer>> path, int tile, int previous) {
+        while(tile >= 0) {
+            path.add(pathPoint(tile % TileGrid.COLUMNS, tile / TileGrid.COLUMNS));
+            int next = flowField.next(tile, previous);
+            previous = tile;
+            tile = next;
+        }
+    }
+
+    /**
+     * Gets the coordinates a gremlin walks through on a tile (offset so the gremlin is centered in the tile).
+     * @param column tile's column
+     * @param row tile's row
+     * @return x,y-coordinates
+     */
+    private static ArrayList<Integer> pathPoint(int column, int row) {
+        ArrayList<Integer> coordinates = new ArrayList<>();
+        coordinates.add(column * App.CELLSIZE + GREMLIN_OFFSET);
+        coordinates.add(row * App.CELLSIZE + GREMLIN_OFFSET + App.TOPBAR);
+        return coordinates;
+    }
+
+    /**
+     * Gets the tile a point of a monster path is on.
+     * @param coordinates x,y-coordinates from pathPoint
+     * @return index of the tile, or -1 if the point is off the map
+     */
+    private static int tileOf(ArrayList<Integer> coordinates) {
+        return TileGrid.indexAt(coordinates.get(0) - GREMLIN_OFFSET, coordinates.get(1) - GREMLIN_OFFSET);
+    }
+}
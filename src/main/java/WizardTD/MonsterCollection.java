@@ -1,93 +1,401 @@
-package WizardTD;
-
-import java.util.*;
-
-import processing.core.PApplet;
-import processing.core.PImage;
-
-/**
- * A collection of monsters that are attacking the wizard house.
- */
-public class MonsterCollection {
-    // Store a collection of monsters
-    private ArrayList<Monster> monsters = new ArrayList<>();
-    // Quantity of monsters in a collection
-    private int quantity;
-    // Track how many monsters killed (used for mana bar)
-    private int monstersKilled;
-    // Track how much hp wizard loses when monster's make it to the wizard house (used for mana bar)
-    private int wizardHpLoss;
-    // Used to randomly choose a path to spawn/travel on from available options
-    private Random rand = new Random();
-
-    /**
-     * Constructs a MonsterCollection object given quantity of monsters, monster health points, speed, armour, images, and a Map object.
-     * @param quantity quantity of monsters in collection
-     * @param type monster type
-     * @param hp monster's health point
-     * @param speed monster's speed
-     * @param armour monster's armour level
-     * @param monsterImages a collection of monster images
-     * @param map a Map object
-     */
-    public MonsterCollection(int quantity, String type, int hp, double speed, double armour, HashMap<String, ArrayList<PImage>> monsterImages, Map map) { // Quantity = number of monsters to create
-        for(int i = 0; i < quantity; i++) {
-            this.monsters.add(new Monster(hp, speed, armour, monsterImages.get(type), map.getMonsterPaths().get(rand.nextInt(map.getMonsterPaths().size()))));
-        }
-        this.quantity = quantity;
-    }
-
-    /**
-     * Update monsters in collection. Find out who's died and who's reached the wizard house.
-     */
-    public void tick() {
-        // Check on monsters, check if any are killed or have reached the wizard house
-        monsters.forEach(monster -> {monster.tick(); if(monster.getIsDead() && !monster.getCounted()){monstersKilled++; monster.setCounted(true);}});
-        monsters.forEach(monster -> {if(monster.getHitWizard()){wizardHpLoss += monster.getHp(); monster.setHitWizard(false);}});
-    }
-
-    /**
-     * Draws monsters in the collection onto the screen.
-     * @param app the PApplet class of the game
-     */
-    public void draw(PApplet app) {
-        // Draw monsters in reverse order so that if 2 gremlins occupy the same position on the path,
-        // the first one to spawn appears on top (helps revealing hp bar when tower starts shooting since
-        // the tower searches for gremlins in order of the arraylist)
-        for(int i = monsters.size() - 1; i >= 0; i--) {
-            monsters.get(i).draw(app);
-        }
-    }
-
-    /**
-     * Gets Monsters in the collection.
-     * @return an ArrayList of Monster objects
-     */
-    public ArrayList<Monster> getMonsters() {
-        return monsters;
-    }
-
-    /**
-     * Gets how many monster have been killed in the collection.
-     * @return number of monsters killed
-     */
-    public int getMonstersKilled() {
-        return monstersKilled;
-    }
-
-    /**
-     * Gets how much hp the wizard loses when monster's make it to the wizard house.
-     * @return health points the wizard loses
-     */
-    public int getWizardHpLoss() {
-        return wizardHpLoss;
-    }
-
-    /**
-     * Gets the quantity of monsters in this collection.
-     * @return quantity of monster in the collection
-     */
-    public int getQuantity() {
-        return quantity;
-    }    
-}
+package WizardTD;
+
+import java.util.*;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+ * A collection of monsters that are attacking the wizard house.
+ *
+ * Monsters are created one at a time as they spawn, taking a slot in the game's MonsterPool (where their data is stored
+ * structure-of-arrays style, one primitive array per field), and give the slot back once their death animation has
+ * finished. The collection keeps the slots of the monsters that are still on screen (alive or dying) packed at the front of
+ * an array in the order they spawned, so ticking and drawing only visit those, however many monsters have spawned.
+ */
+public class MonsterCollection {
+    // Death animation frames (images 1 to 5) and how many ticks each is shown for
+    private static final int DEATH_FRAMES = 6;
+    private static final int TICKS_PER_DEATH_FRAME = 3;
+
+    // Quantity of monsters in a collection
+    private int quantity;
+    // Track how many monsters killed (used for mana bar), and how many are playing their death animation
+    private int monstersKilled;
+    private int monstersDying;
+    // Track how much hp wizard loses when monster's make it to the wizard house (used for mana bar)
+    private int wizardHpLoss;
+
+    // Health points, speed, armour and images shared by every monster in the collection
+    private int initialHp;
+    private double speed;
+    private double armour;
+    private ArrayList<PImage> monsterImages;
+    // The map's paths to the wizard house, and used to randomly choose which one each monster takes. After the level is
+    // edited the paths are followed by ones from partway along for the monsters already on the map (see reroute)
+    private MonsterPath[] paths;
+    private int spawnPaths;
+    private Random rand;
+    // Spatial grid used by towers to find monsters, and the pool the monsters' data is stored in
+    private SpatialGrid grid;
+    private MonsterPool pool;
+    // Pool slot of each monster that is alive or dying (in the order they spawned), and how many there are
+    private int[] slots;
+    private int active;
+
+    /**
+     * Constructs a MonsterCollection object given quantity of monsters, monster health points, speed, armour, images, a Map object,
+     * a random number generator for choosing paths, the spatial grid the monsters are tracked in and the pool they're stored in.
+     * No monsters are created until they spawn.
+     * @param quantity quantity of monsters in collection
+     * @param type monster type
+     * @param hp monster's health point
+     * @param speed monster's speed
+     * @param armour monster's armour level
+     * @param monsterImages a collection of monster images
+     * @param map a Map object
+     * @param rand used to randomly choose a path to spawn/travel on from available options
+     * @param grid spatial grid used by towers to find monsters
+     * @param pool pool the monsters' data is stored in
+     */
+    public MonsterCollection(int quantity, String type, int hp, double speed, double armour, HashMap<String, ArrayList<PImage>> monsterImages, Map map, Random rand, SpatialGrid grid, MonsterPool pool) { // Quantity = number of monsters to create
+        this.quantity = quantity;
+        this.initialHp = hp;
+        this.speed = speed;
+        this.armour = armour;
+        this.monsterImages = monsterImages.get(type);
+        this.paths = map.getCompiledPaths().toArray(new MonsterPath[0]);
+        this.spawnPaths = paths.length;
+        this.rand = rand;
+        this.grid = grid;
+        this.pool = pool;
+        this.slots = new int[quantity];
+    }
+
+    /**
+     * Creates the next monster in the collection and sets it on its way to the wizard house.
+     * @return the new Monster
+     */
+    public Monster spawn() {
+        int slot = pool.acquire(this, rand.nextInt(spawnPaths), initialHp, grid.nextMonsterNumber());
+        slots[active++] = slot;
+
+        Monster mtr = pool.getMonster(slot);
+        mtr.bringToLife();
+        return mtr;
+    }
+
+    /**
+     * Update monsters in collection. Find out who's died and who's reached the wizard house, and give back the slots of
+     * monsters whose death animation has finished (the rest are shuffled down to fill the gaps, keeping their order).
+     */
+    public void tick() {
+        int kept = 0;
+        for(int k = 0; k < active; k++) {
+            int slot = slots[k];
+            tick(slot);
+
+            if((pool.state[slot] & MonsterPool.HIT_WIZARD) != 0) {
+                wizardHpLoss += pool.hp[slot];
+                pool.state[slot] &= ~MonsterPool.HIT_WIZARD;
+            }
+            if((pool.state[slot] & MonsterPool.DEAD) != 0) {
+                monstersDying--;
+                monstersKilled++;
+                pool.release(slot);
+                continue;
+            }
+            slots[kept++] = slot;
+        }
+        active = kept;
+    }
+
+    /**
+     * Updates a monster's position along the path is takes to the wizard house, or plays out its death.
+     * @param slot the monster's slot in the pool
+     */
+    public void tick(int slot) {
+        byte[] state = pool.state;
+        float[] x = pool.x;
+        float[] y = pool.y;
+
+        // Handle death animation timing (done here rather than in draw so the game can run without a window)
+        if((state[slot] & MonsterPool.DYING) != 0) {
+            if((state[slot] & MonsterPool.ALIVE) != 0) {
+                state[slot] &= ~MonsterPool.ALIVE;
+                monstersDying++;
+            }
+            pool.deathAnimationTicks[slot]++;
+
+            if(pool.deathAnimationTicks[slot] == TICKS_PER_DEATH_FRAME) {
+                pool.deathAnimationCount[slot]++;
+                pool.deathAnimationTicks[slot] = 0;
+            }
+
+            if(pool.deathAnimationCount[slot] == DEATH_FRAMES) {
+                pool.deathAnimationCount[slot] = 1;
+                state[slot] = (byte)((state[slot] & ~MonsterPool.DYING) | MonsterPool.DEAD);
+            }
+        }
+
+        pool.prevX[slot] = x[slot];
+        pool.prevY[slot] = y[slot];
+
+        MonsterPath monsterPath = paths[pool.path[slot]];
+
+        // Set up the gremlin's spawn point outside the map
+        if((state[slot] & (MonsterPool.SPAWNED | MonsterPool.DEAD)) == 0) {
+            x[slot] = monsterPath.getX(0, 0);
+            y[slot] = monsterPath.getY(0, 0);
+            // Don't interpolate from the wizard house back to the spawn point
+            pool.prevX[slot] = x[slot];
+            pool.prevY[slot] = y[slot];
+            state[slot] |= MonsterPool.SPAWNED;
+        }
+
+        // Logic for monster travelling along a path: walk a bit further, then find where that is
+        if((state[slot] & MonsterPool.ALIVE) != 0) {
+            float[] distance = pool.distance;
+            short[] segment = pool.segment;
+
+            if(distance[slot] < monsterPath.getLength()) {
+                distance[slot] += speed;
+                if(distance[slot] > monsterPath.getLength())
+                    distance[slot] = monsterPath.getLength();
+
+                segment[slot] = (short)monsterPath.findSegment(distance[slot], segment[slot]);
+                x[slot] = monsterPath.getX(distance[slot], segment[slot]);
+                y[slot] = monsterPath.getY(distance[slot], segment[slot]);
+            // Reached the wizard house
+            } else {
+                distance[slot] = 0;
+                segment[slot] = 0;
+                state[slot] = (byte)((state[slot] & ~MonsterPool.SPAWNED) | MonsterPool.HIT_WIZARD);
+                // A monster put on a path partway along starts again from one of the spawn points
+                if(pool.path[slot] >= spawnPaths)
+                    pool.path[slot] = rand.nextInt(spawnPaths);
+            }
+        }
+
+        updateCell(slot);
+    }
+
+    /**
+     * Puts the monsters on the map's paths again after the level has been edited. A monster on the map carries on from
+     * where it is to the next tile it was walking towards and then downhill through the flow field (see
+     * Map.findPathFrom), and monsters on the same stretch share a path, so there are never more paths than tiles. A monster that's yet to come on to the map starts again from a spawn point if its own has gone,
+     * and new monsters spawn on the map's new paths. Dying monsters are left as they are.
+     * @param map the edited Map (with at least one path to the wizard house)
+     * @return true if every monster was put on a path, false if some are walking towards tiles that can't reach the
+     * wizard house any more (they're left on their old paths)
+     */
+    public boolean reroute(Map map) {
+        ArrayList<MonsterPath> newPaths = new ArrayList<>(map.getCompiledPaths());
+        int newSpawnPaths = newPaths.size();
+        // Where each path is in newPaths, so monsters on the same path share its entry
+        IdentityHashMap<MonsterPath, Integer> indexes = new IdentityHashMap<>();
+        for(int i = 0; i < newSpawnPaths; i++)
+            indexes.put(newPaths.get(i), i);
+        boolean rerouted = true;
+
+        for(int k = 0; k < active; k++) {
+            int slot = slots[k];
+            MonsterPath oldPath = paths[pool.path[slot]];
+            byte state = pool.state[slot];
+
+            // Waiting to come (back) on to the map
+            if((state & MonsterPool.ALIVE) != 0 && (state & MonsterPool.SPAWNED) == 0) {
+                pool.path[slot] = rand.nextInt(newSpawnPaths);
+                continue;
+            }
+
+            MonsterPath path = null;
+            if((state & MonsterPool.ALIVE) != 0) {
+                int segment = pool.segment[slot];
+                path = map.findPathFrom(pool.x[slot], pool.y[slot], oldPath.getDirectionX(segment), oldPath.getDirectionY(segment));
+                // Off the map with no way on, so start again from another spawn point
+                if(path == null && TileGrid.indexAt((int)pool.x[slot], (int)pool.y[slot]) < 0) {
+                    pool.path[slot] = rand.nextInt(newSpawnPaths);
+                    pool.distance[slot] = 0;
+                    pool.segment[slot] = 0;
+                    pool.state[slot] &= ~MonsterPool.SPAWNED;
+                    continue;
+                }
+                if(path == null)
+                    rerouted = false;
+            }
+
+            if(path != null) {
+                // The path starts from the tile the monster is walking from, and runs straight to where it is
+                float distance = Math.min(path.getLength(), Math.abs(pool.x[slot] - path.getX(0, 0)) + Math.abs(pool.y[slot] - path.getY(0, 0)));
+                pool.distance[slot] = distance;
+                pool.segment[slot] = (short)path.findSegment(distance, 0);
+            } else {
+                path = oldPath;
+            }
+
+            Integer index = indexes.get(path);
+            if(index == null) {
+                index = newPaths.size();
+                newPaths.add(path);
+                indexes.put(path, index);
+            }
+            pool.path[slot] = index;
+        }
+
+        paths = newPaths.toArray(new MonsterPath[0]);
+        spawnPaths = newSpawnPaths;
+        return rerouted;
+    }
+
+    /**
+     * Moves a monster to the tile it's now on in the spatial grid, taking it out of the grid once it's no longer alive.
+     * @param slot the monster's slot in the pool
+     */
+    private void updateCell(int slot) {
+        int cell = pool.cell[slot];
+        int newCell = (pool.state[slot] & MonsterPool.ALIVE) != 0 ? grid.cellAt((int)pool.x[slot], (int)pool.y[slot]) : -1;
+
+        if(newCell != cell) {
+            if(cell >= 0)
+                grid.remove(pool.getMonster(slot), cell);
+            if(newCell >= 0)
+                grid.add(pool.getMonster(slot), newCell);
+            pool.cell[slot] = newCell;
+        }
+    }
+
+    /**
+     * Draws monsters in the collection onto the screen.
+     * @param app the PApplet class of the game
+     * @param alpha how far the game is between the last tick and the next (used to interpolate monster positions)
+     */
+    public void draw(PApplet app, float alpha) {
+        // Draw monsters in reverse order so that if 2 gremlins occupy the same position on the path,
+        // the first one to spawn appears on top (helps revealing hp bar when tower starts shooting since
+        // the tower searches for gremlins in order of the arraylist)
+        for(int k = active - 1; k >= 0; k--)
+            draw(app, alpha, slots[k]);
+    }
+
+    /**
+     * Draws a monster onto the path along with its health bar, or draws it dying.
+     * @param app the PApplet class of the game
+     * @param alpha how far the game is between the last tick and the next (0 to 1)
+     * @param slot the monster's slot in the pool
+     */
+    public void draw(PApplet app, float alpha, int slot) {
+        // Interpolate between the last two positions so movement is smooth at any frame rate
+        float x = PApplet.lerp(pool.prevX[slot], pool.x[slot], alpha);
+        float y = PApplet.lerp(pool.prevY[slot], pool.y[slot], alpha);
+
+        if((pool.state[slot] & MonsterPool.DYING) != 0) {
+            app.image(monsterImages.get(pool.deathAnimationCount[slot]), x, y);
+        }
+
+        // Only draw if alive
+        if((pool.state[slot] & MonsterPool.ALIVE) != 0) {
+            app.image(monsterImages.get(0), x, y);
+
+            // Display health bar
+            app.noStroke();
+            app.fill(227, 20, 34);
+            app.rect(x - 4.5f, y - 4.4f, 29.5f, 3);
+            app.fill(73, 255, 66);
+            app.rect(x - 4.5f, y - 4.4f, 29.5f * ((float)pool.hp[slot]/(float)initialHp), 3);
+        }
+    }
+
+    /**
+     * Gets how far a monster still has to walk along its path to reach the wizard house.
+     * @param slot the monster's slot in the pool
+     * @return distance to go in pixels
+     */
+    public float getDistanceToGo(int slot) {
+        return paths[pool.path[slot]].getLength() - pool.distance[slot];
+    }
+
+    /**
+     * Gets the Monsters in the collection that have spawned and haven't finished dying (in the order they spawned).
+     * Makes a new list every time, so isn't meant to be used every tick.
+     * @return an ArrayList of Monster objects
+     */
+    public ArrayList<Monster> getMonsters() {
+        ArrayList<Monster> monsters = new ArrayList<>(active);
+        for(int k = 0; k < active; k++)
+            monsters.add(pool.getMonster(slots[k]));
+        return monsters;
+    }
+
+    /**
+     * Gets the speed that the monsters in the collection travel.
+     * @return monsters' speed
+     */
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Gets the armour level of the monsters in the collection.
+     * @return monsters' armour level
+     */
+    public double getArmour() {
+        return armour;
+    }
+
+    /**
+     * Gets how many monster have been killed in the collection.
+     * @return number of monsters killed
+     */
+    public int getMonstersKilled() {
+        return monstersKilled;
+    }
+
+    /**
+     * Gets how much hp the wizard loses when monster's make it to the wizard house.
+     * @return health points the wizard loses
+     */
+    public int getWizardHpLoss() {
+        return wizardHpLoss;
+    }
+
+    /**
+     * Indicates if every monster in the collection has been killed.
+     * @return true if all monsters are dead
+     */
+    public boolean isCleared() {
+        return monstersKilled == quantity;
+    }
+
+    /**
+     * Gets the number of monsters in the collection that are on their way to the wizard house.
+     * @return number of live monsters
+     */
+    public int getMonstersAlive() {
+        return active - monstersDying;
+    }
+
+    /**
+     * Gets the number of monsters in the collection that haven't been killed yet (including ones yet to spawn).
+     * @return number of monsters remaining
+     */
+    public int getMonstersRemaining() {
+        return quantity - monstersKilled;
+    }
+
+    /**
+     * Indicates if any monsters in the collection are on the move or dying.
+     * @return true if any monster is alive or dying
+     */
+    public boolean hasActiveMonsters() {
+        return active > 0;
+    }
+
+    /**
+     * Gets the quantity of monsters in this collection.
+     * @return quantity of monster in the collection
+     */
+    public int getQuantity() {
+        return quantity;
+    }
+}
@@ -0,0 +1,119 @@
+package WizardTD;
+
+import java.util.ArrayList;
+
+/**
+ * A path from a spawn point to the wizard house compiled into a polyline: the points where the path turns, and how far
+ * along the path each of them is. Monsters only need to know how far they've walked, and their position is worked out
+ * from that, so they move exactly the same distance every tick whatever their speed.
+ */
+public class MonsterPath {
+    // x,y-coordinates of the start, each turn and the end of the path
+    private float[] xs;
+    private float[] ys;
+    // Distance along the path to each point
+    private float[] distances;
+    // Direction of the segment starting at each point (a unit vector)
+    private float[] directionXs;
+    private float[] directionYs;
+
+    /**
+     * Constructs a MonsterPath object from a path's tile coordinates, keeping only the points where it turns.
+     * @param coordinates x,y-coordinates of each tile along the path, from the spawn point to the wizard house
+     */
+    public MonsterPath(ArrayList<ArrayList<Integer>> coordinates) {
+        ArrayList<Integer> points = new ArrayList<>();
+        points.add(0);
+        for(int i = 1; i < coordinates.size() - 1; i++) {
+            // Keep a tile if the path changes direction on it
+            ArrayList<Integer> previous = coordinates.get(i - 1);
+            ArrayList<Integer> current = coordinates.get(i);
+            ArrayList<Integer> next = coordinates.get(i + 1);
+            if(Integer.signum(current.get(0) - previous.get(0)) != Integer.signum(next.get(0) - current.get(0))
+                || Integer.signum(current.get(1) - previous.get(1)) != Integer.signum(next.get(1) - current.get(1)))
+                points.add(i);
+        }
+        if(coordinates.size() > 1)
+            points.add(coordinates.size() - 1);
+
+        int n = points.size();
+        xs = new float[n];
+        ys = new float[n];
+        distances = new float[n];
+        directionXs = new float[n];
+        directionYs = new float[n];
+
+        for(int i = 0; i < n; i++) {
+            xs[i] = coordinates.get(points.get(i)).get(0);
+            ys[i] = coordinates.get(points.get(i)).get(1);
+
+            if(i > 0) {
+                float dx = xs[i] - xs[i - 1];
+                float dy = ys[i] - ys[i - 1];
+                float length = (float)Math.sqrt(dx * dx + dy * dy);
+                distances[i] = distances[i - 1] + length;
+                directionXs[i - 1] = dx / length;
+                directionYs[i - 1] = dy / length;
+            }
+        }
+    }
+
+    /**
+     * Gets the length of the path.
+     * @return distance from the spawn point to the wizard house in pixels
+     */
+    public float getLength() {
+        return distances[distances.length - 1];
+    }
+
+    /**
+     * Finds the segment of the path a distance along it is on. Monsters only ever walk forwards, so the search starts
+     * from the segment they were on last tick and is almost always done straight away.
+     * @param distance distance along the path
+     * @param segment segment the search starts from (0 to search the whole path)
+     * @return index of the point the segment starts at
+     */
+    public int findSegment(float distance, int segment) {
+        while(segment < distances.length - 2 && distance >= distances[segment + 1])
+            segment++;
+        return segment;
+    }
+
+    /**
+     * Gets the x part of the direction a segment of the path goes in.
+     * @param segment index of the point the segment starts at (see findSegment)
+     * @return x part of a unit vector
+     */
+    public float getDirectionX(int segment) {
+        return directionXs[segment];
+    }
+
+    /**
+     * Gets the y part of the direction a segment of the path goes in.
+     * @param segment index of the point the segment starts at (see findSegment)
+     * @return y part of a unit vector
+     */
+    public float getDirectionY(int segment) {
+        return directionYs[segment];
+    }
+
+    /**
+     * Gets the x-coordinate of a point along the path.
+     * @param distance distance along the path
+     * @param segment segment the point is on (see findSegment)
+     * @return x-coordinate
+     */
+    public float getX(float distance, int segment) {
+        return xs[segment] + directionXs[segment] * (distance - distances[segment]);
+    }
+
+    /**
+     * Gets the y-coordinate of a point along the path.
+     * @param distance distance along the path
+     * @param segment segment the point is on (see findSegment)
+     * @return y-coordinate
+     */
+    public float getY(float distance, int segment) {
+        return ys[segment] + directionYs[segment] * (distance - distances[segment]);
+    }
+}
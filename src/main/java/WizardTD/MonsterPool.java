@@ -0,0 +1,177 @@
+package WizardTD;
+
+import java.util.Arrays;
+
+/**
+ * Storage for every monster in a game, kept structure-of-arrays style: one primitive array per field, indexed by the
+ * monster's slot. A monster takes a slot when it spawns and gives it back once its death animation has finished, so the
+ * arrays only ever need to be as big as the most monsters on screen at once. Monsters reaching the wizard house keep
+ * their slot, since they respawn and carry on attacking.
+ *
+ * Each slot has one Monster handle that is reused by every monster that takes the slot, so spawning doesn't allocate.
+ * Anything holding on to a Monster across ticks (like a tower's target) should remember its generation, which changes
+ * every time the slot is given back. The pool can be cleared and reused for a new game.
+ */
+public class MonsterPool {
+    // Flags packed into each monster's state
+    static final byte SPAWNED = 1;         // placed at its spawn point (cleared when it reaches the wizard house and has to respawn)
+    static final byte ALIVE = 1 << 1;      // on its way to the wizard house
+    static final byte DYING = 1 << 2;      // playing its death animation
+    static final byte DEAD = 1 << 3;       // shot dead
+    static final byte HIT_WIZARD = 1 << 4; // reached the wizard house this tick
+    // Number of slots the pool starts with (doubled whenever they run out)
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Per-slot data (read and written directly by MonsterCollection and the Monster handles)
+    // Coordinates, and coordinates at the previous tick (used to interpolate between ticks when drawing)
+    float[] x = new float[0];
+    float[] y = new float[0];
+    float[] prevX = new float[0];
+    float[] prevY = new float[0];
+    // Current health points
+    int[] hp = new int[0];
+    // Which path the monster takes, how far along it the monster has walked and the segment of the path it's on
+    int[] path = new int[0];
+    float[] distance = new float[0];
+    short[] segment = new short[0];
+    // State flags (see SPAWNED etc.)
+    byte[] state = new byte[0];
+    // Death animation image and ticks it's been shown for
+    byte[] deathAnimationCount = new byte[0];
+    byte[] deathAnimationTicks = new byte[0];
+    // Tile the monster is bucketed under in the spatial grid (-1 if not in the grid)
+    int[] cell = new int[0];
+    // Where the monster is in its spatial grid tile's list (so it can be taken out without searching the list)
+    int[] cellIndex = new int[0];
+    // Order the monster was created in (towers pick the first created out of equally close monsters)
+    int[] number = new int[0];
+    // Wave the monster belongs to
+    MonsterCollection[] owner = new MonsterCollection[0];
+    // Number of times each slot has been given back
+    int[] generation = new int[0];
+
+    // The handle for each slot
+    private Monster[] handles = new Monster[0];
+    // Slots that have been given back, and how many there are
+    private int[] free = new int[0];
+    private int freeCount;
+    // Number of slots that have ever been handed out (slots from here on have never been used)
+    private int used;
+
+    /**
+     * Constructs an empty MonsterPool object.
+     */
+    public MonsterPool() {
+        resize(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Takes a slot for a monster that is spawning and sets it up.
+     * @param owner the wave the monster belongs to
+     * @param path which of the map's paths the monster takes
+     * @param hp monster health points
+     * @param number order the monster was created in
+     * @return the monster's slot
+     */
+    public int acquire(MonsterCollection owner, int path, int hp, int number) {
+        int slot;
+        if(freeCount > 0) {
+            slot = free[--freeCount];
+        } else {
+            if(used == handles.length)
+                resize(handles.length * 2);
+            slot = used++;
+        }
+
+        x[slot] = 0;
+        y[slot] = 0;
+        prevX[slot] = 0;
+        prevY[slot] = 0;
+        this.hp[slot] = hp;
+        this.path[slot] = path;
+        distance[slot] = 0;
+        segment[slot] = 0;
+        state[slot] = 0;
+        deathAnimationCount[slot] = 1;
+        deathAnimationTicks[slot] = 0;
+        cell[slot] = -1;
+        this.number[slot] = number;
+        this.owner[slot] = owner;
+        return slot;
+    }
+
+    /**
+     * Gives back a monster's slot once it's finished with (the monster must already be out of the spatial grid).
+     * @param slot the monster's slot
+     */
+    public void release(int slot) {
+        generation[slot]++;
+        owner[slot] = null;
+        free[freeCount++] = slot;
+    }
+
+    /**
+     * Gives back every slot, ready for a new game.
+     */
+    public void clear() {
+        for(int slot = 0; slot < used; slot++) {
+            if(owner[slot] != null)
+                release(slot);
+        }
+    }
+
+    /**
+     * Gets the handle for a slot.
+     * @param slot the slot
+     * @return the Monster handle
+     */
+    public Monster getMonster(int slot) {
+        return handles[slot];
+    }
+
+    /**
+     * Gets the number of slots currently taken by monsters.
+     * @return number of monsters in the pool
+     */
+    public int size() {
+        return used - freeCount;
+    }
+
+    /**
+     * Gets the number of slots the pool has room for before it has to grow.
+     * @return capacity of the pool
+     */
+    public int getCapacity() {
+        return handles.length;
+    }
+
+    /**
+     * Grows the per-slot arrays.
+     * @param capacity new number of slots
+     */
+    private void resize(int capacity) {
+        int old = handles.length;
+
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        prevX = Arrays.copyOf(prevX, capacity);
+        prevY = Arrays.copyOf(prevY, capacity);
+        hp = Arrays.copyOf(hp, capacity);
+        path = Arrays.copyOf(path, capacity);
+        distance = Arrays.copyOf(distance, capacity);
+        segment = Arrays.copyOf(segment, capacity);
+        state = Arrays.copyOf(state, capacity);
+        deathAnimationCount = Arrays.copyOf(deathAnimationCount, capacity);
+        deathAnimationTicks = Arrays.copyOf(deathAnimationTicks, capacity);
+        cell = Arrays.copyOf(cell, capacity);
+        cellIndex = Arrays.copyOf(cellIndex, capacity);
+        number = Arrays.copyOf(number, capacity);
+        owner = Arrays.copyOf(owner, capacity);
+        generation = Arrays.copyOf(generation, capacity);
+        free = Arrays.copyOf(free, capacity);
+
+        handles = Arrays.copyOf(handles, capacity);
+        for(int slot = old; slot < capacity; slot++)
+            handles[slot] = new Monster(this, slot);
+    }
+}
@@ -0,0 +1,71 @@
+package WizardTD;
+
+import java.util.PriorityQueue;
+
+/**
+ * Runs game events (monster spawns and wave starts) on the tick they're due, so nothing has to check
+ * the clock every tick to see if it's time yet. Events due on the same tick run in the order they were scheduled.
+ */
+public class Scheduler {
+    // Events waiting to run, ordered by the tick they're due
+    private PriorityQueue<Event> events = new PriorityQueue<>();
+    // Incremented for every event scheduled (keeps events on the same tick in order)
+    private long sequence;
+
+    /**
+     * Schedules an action to run on a given tick.
+     * @param tick the tick the action is due
+     * @param action the action to run
+     */
+    public void schedule(long tick, Runnable action) {
+        events.add(new Event(tick, sequence++, action));
+    }
+
+    /**
+     * Runs every event that's due on or before the given tick, including events scheduled by events that run.
+     * @param tick the current tick
+     */
+    public void runDue(long tick) {
+        while(!events.isEmpty() && events.peek().tick <= tick) {
+            events.poll().action.run();
+        }
+    }
+
+    /**
+     * Gets the tick the next event is due.
+     * @return the tick of the next event, or Long.MAX_VALUE if nothing is scheduled
+     */
+    public long getNextEventTick() {
+        if(events.isEmpty())
+            return Long.MAX_VALUE;
+        return events.peek().tick;
+    }
+
+    /**
+     * An action to run on a given tick.
+     */
+    private static class Event implements Comparable<Event> {
+        private final long tick;
+        private final long sequence;
+        private final Runnable action;
+
+        /**
+         * Constructs an Event object given the tick it's due, its place in the schedule, and the action to run.
+         * @param tick the tick the event is due
+         * @param sequence order the event was scheduled in
+         * @param action the action to run
+         */
+        private Event(long tick, long sequence, Runnable action) {
+            this.tick = tick;
+            this.sequence = sequence;
+            this.action = action;
+        }
+
+        @Override
+        public int compareTo(Event other) {
+            if(tick != other.tick)
+                return Long.compare(tick, other.tick);
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
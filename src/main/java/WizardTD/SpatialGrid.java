@@ -0,0 +1,262 @@
+package WizardTD;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Buckets live monsters by the 32 x 32 px map tile they're on, so a tower only has to look at the monsters on the tiles
+ * its range circle touches instead of every monster in every wave. Monsters move themselves between buckets as they
+ * cross tiles (see Monster.tick). The grid has an extra ring of tiles around the map for monsters spawning off screen,
+ * and anything further out is kept in the nearest edge tile.
+ *
+ * Monsters only ever walk the map's paths, so towers don't search tiles off the paths at all: each tower keeps a table of
+ * the path tiles within its range (see coveredCells), which only changes when its range is upgraded or the level is edited.
+ *
+ * The monsters on each tile are kept in order of how far they still have to walk to the wizard house, so a tower
+ * targeting the first or last monster only needs the first one in range on each tile.
+ */
+public class SpatialGrid {
+    // Number of tiles across and down, including the ring of tiles around the map
+    private static final int COLUMNS = 22;
+    private static final int ROWS = 22;
+
+    // Live monsters on each tile (indexed by row * COLUMNS + column)
+    private ArrayList<ArrayList<Monster>> cells = new ArrayList<>();
+    // Tiles that monsters can be on (path tiles, spawn points and the wizard house)
+    private boolean[] pathCells = new boolean[COLUMNS * ROWS];
+    // Number of monsters created so far (used to number monsters in the order they were created)
+    private int created;
+
+    /**
+     * Constructs an empty SpatialGrid object given the Map whose paths the monsters walk.
+     * @param map a Map object
+     */
+    public SpatialGrid(Map map) {
+        for(int i = 0; i < COLUMNS * ROWS; i++)
+            cells.add(new ArrayList<>());
+
+        // A monster walking from one path tile to the next is always on the tile of one or the other
+        for(ArrayList<ArrayList<Integer>> path: map.getMonsterPaths()) {
+            for(ArrayList<Integer> coords: path)
+                pathCells[cellAt(coords.get(0), coords.get(1))] = true;
+        }
+    }
+
+    /**
+     * Works out again which tiles monsters can be on, after the level has been edited: the tiles on the map's paths, every
+     * path tile that can reach the wizard house (monsters put back on the paths partway along walk on from wherever they
+     * are) and every tile with monsters on it now. Towers have to work out their covered tiles again afterwards.
+     * @param map the edited Map
+     */
+    public void updatePathCells(Map map) {
+        Arrays.fill(pathCells, false);
+        for(ArrayList<ArrayList<Integer>> path: map.getMonsterPaths()) {
+            for(ArrayList<Integer> coords: path)
+                pathCells[cellAt(coords.get(0), coords.get(1))] = true;
+        }
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            if(map.getFlowField().getDistance(tile) != FlowField.UNREACHABLE)
+                pathCells[cellAt(TileGrid.getX(tile), TileGrid.getY(tile))] = true;
+        }
+        for(int cell = 0; cell < COLUMNS * ROWS; cell++) {
+            if(!cells.get(cell).isEmpty())
+                pathCells[cell] = true;
+        }
+    }
+
+    /**
+     * Gets the number of the next monster created. Monsters are numbered in the order they're created so that towers can
+     * pick between equally close monsters the same way no matter which order they're found in.
+     * @return the monster's number
+     */
+    public int nextMonsterNumber() {
+        return created++;
+    }
+
+    /**
+     * Gets the tile a position is on.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return index of the tile
+     */
+    public int cellAt(int x, int y) {
+        return row(y) * COLUMNS + column(x);
+    }
+
+    /**
+     * Adds a monster to a tile.
+     * @param mtr the monster
+     * @param cell index of the tile
+     */
+    public void add(Monster mtr, int cell) {
+        ArrayList<Monster> monsters = cells.get(cell);
+        mtr.setCellIndex(monsters.size());
+        monsters.add(mtr);
+    }
+
+    /**
+     * Removes a monster from a tile. The monster knows where it is in the tile's list, so however many monsters are on the
+     * tile this takes the same time.
+     * @param mtr the monster
+     * @param cell index of the tile the monster was added to
+     */
+    public void remove(Monster mtr, int cell) {
+        ArrayList<Monster> monsters = cells.get(cell);
+        int i = mtr.getCellIndex();
+        // Order within a tile doesn't matter until it's sorted again, so fill the gap with the last monster
+        Monster last = monsters.remove(monsters.size() - 1);
+        if(i < monsters.size()) {
+            monsters.set(i, last);
+            last.setCellIndex(i);
+        }
+    }
+
+    /**
+     * Works out which path tiles a monster could be on while part of it is inside a circle.
+     * @param centerX x-coordinate of the centre of the circle
+     * @param centerY y-coordinate of the centre of the circle
+     * @param radius radius of the circle
+     * @return indexes of the covered path tiles
+     */
+    public int[] coveredCells(int centerX, int centerY, int radius) {
+        // A monster is bucketed by its top left corner, so it can reach into the circle from up to a monster's size away
+        int size = Monster.SIZE;
+        int firstColumn = column(centerX - radius - size);
+        int lastColumn = column(centerX + radius);
+        int firstRow = row(centerY - radius - size);
+        int lastRow = row(centerY + radius);
+
+        ArrayList<Integer> covered = new ArrayList<>();
+        for(int r = firstRow; r <= lastRow; r++) {
+            for(int c = firstColumn; c <= lastColumn; c++) {
+                if(!pathCells[r * COLUMNS + c])
+                    continue;
+
+                // Area a monster bucketed on this tile can cover (edge tiles stretch out to hold anything off the grid)
+                int left = c == 0 ? Integer.MIN_VALUE / 2 : (c - 1) * App.CELLSIZE;
+                int right = c == COLUMNS - 1 ? Integer.MAX_VALUE / 2 : c * App.CELLSIZE + size;
+                int top = r == 0 ? Integer.MIN_VALUE / 2 : (r - 1) * App.CELLSIZE + App.TOPBAR;
+                int bottom = r == ROWS - 1 ? Integer.MAX_VALUE / 2 : r * App.CELLSIZE + App.TOPBAR + size;
+
+                if(Geometry.circleIntersectsRect(left, top, right, bottom, centerX, centerY, radius))
+                    covered.add(r * COLUMNS + c);
+            }
+        }
+
+        int[] cells = new int[covered.size()];
+        for(int i = 0; i < cells.length; i++)
+            cells[i] = covered.get(i);
+        return cells;
+    }
+
+    /**
+     * Finds the best target out of the live monsters on the given tiles that have a corner inside a circle.
+     * @param targeting how the target is chosen
+     * @param coveredCells tiles to search (see coveredCells)
+     * @param centerX x-coordinate of the centre of the circle
+     * @param centerY y-coordinate of the centre of the circle
+     * @param radius radius of the circle
+     * @param fromX x-coordinate of the tower's top left corner (distances for CLOSEST are measured from here)
+     * @param fromY y-coordinate of the tower's top left corner
+     * @return the best target, or null if there are no monsters in the circle
+     */
+    public Monster findTarget(Targeting targeting, int[] coveredCells, int centerX, int centerY, int radius, int fromX, int fromY) {
+        Monster best = null;
+        boolean backwards = targeting == Targeting.LAST;
+
+        for(int cell: coveredCells) {
+            ArrayList<Monster> monsters = cells.get(cell);
+            int n = monsters.size();
+            Monster firstInRange = null;
+
+            for(int k = 0; k < n; k++) {
+                Monster mtr = monsters.get(backwards ? n - 1 - k : k);
+
+                // Tiles are in order of progress, so FIRST and LAST are done with this tile once they're past the first
+                // monster in range (and any monsters level with it)
+                if(firstInRange != null && targeting.followsProgress() && mtr.getDistanceToGo() != firstInRange.getDistanceToGo())
+                    break;
+                // A monster shot dead this tick is still alive (and in the grid) until its wave next ticks, but it's no target
+                if(!mtr.getIsAlive() || mtr.getIsDying() || !Geometry.cornerInCircle(mtr.getX(), mtr.getY(), Monster.SIZE, centerX, centerY, radius))
+                    continue;
+
+                if(firstInRange == null)
+                    firstInRange = mtr;
+                if(targeting.isBetter(mtr, best, fromX, fromY))
+                    best = mtr;
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * Puts the monsters on each tile back in order of how far they still have to walk to the wizard house (ties in the
+     * order they were created). Called once a tick after the monsters have moved. Monsters hardly ever overtake each
+     * other, so an insertion sort has next to nothing to do.
+     */
+    public void sortByProgress() {
+        for(ArrayList<Monster> monsters: cells) {
+            for(int i = 1; i < monsters.size(); i++) {
+                Monster mtr = monsters.get(i);
+                int j = i - 1;
+                while(j >= 0 && isAhead(mtr, monsters.get(j))) {
+                    monsters.set(j + 1, monsters.get(j));
+                    monsters.get(j + 1).setCellIndex(j + 1);
+                    j--;
+                }
+                monsters.set(j + 1, mtr);
+                mtr.setCellIndex(j + 1);
+            }
+        }
+    }
+
+    /**
+     * Gets the live monsters on a tile (in progress order after sortByProgress).
+     * @param cell index of the tile
+     * @return the tile's monsters (mustn't be changed)
+     */
+    ArrayList<Monster> getMonstersOn(int cell) {
+        return cells.get(cell);
+    }
+
+    /**
+     * Gets the number of monsters in the grid.
+     * @return number of monsters
+     */
+    public int size() {
+        int size = 0;
+        for(ArrayList<Monster> monsters: cells)
+            size += monsters.size();
+        return size;
+    }
+
+    /**
+     * Indicates if a monster comes before another in progress order.
+     * @param a a monster
+     * @param b another monster
+     * @return true if a has less far to go than b (or as far and was created first)
+     */
+    private static boolean isAhead(Monster a, Monster b) {
+        float c = a.getDistanceToGo() - b.getDistanceToGo();
+        return c < 0 || (c == 0 && a.getNumber() < b.getNumber());
+    }
+
+    /**
+     * Gets the grid column an x-coordinate is in (monsters off the grid are kept in the nearest edge column).
+     * @param x x-coordinate
+     * @return grid column
+     */
+    private static int column(int x) {
+        return Math.max(0, Math.min(COLUMNS - 1, Math.floorDiv(x, App.CELLSIZE) + 1));
+    }
+
+    /**
+     * Gets the grid row a y-coordinate is in (monsters off the grid are kept in the nearest edge row).
+     * @param y y-coordinate
+     * @return grid row
+     */
+    private static int row(int y) {
+        return Math.max(0, Math.min(ROWS - 1, Math.floorDiv(y - App.TOPBAR, App.CELLSIZE) + 1));
+    }
+}
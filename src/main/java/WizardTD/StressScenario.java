@@ -0,0 +1,162 @@
+package WizardTD;
+
+import java.io.File;
+import java.io.PrintWriter;
+
+import processing.core.PApplet;
+import processing.data.JSONArray;
+import processing.data.JSONObject;
+
+/**
+ * Stress scenario for finding where the game stops scaling. Generates a config whose waves double in size (e.g. 500,
+ * 1000, 2000, ... gremlins) and builds a tower on every grass tile, then reports how long ticks take as the monsters pile
+ * up. The gremlins have no armour, so fireballs don't hurt them and every monster spawned stays on the map, walking
+ * loops from its spawn point to the wizard house.
+ *
+ * Usage: StressScenario [levelN.txt] [--start N] [--max N] [--wave-seconds N] [--window]
+ *
+ * With --window the scenario is played in the game window instead, and the time taken by each frame is printed.
+ */
+public class StressScenario {
+    // Defaults for the level, the size of the first and largest waves and how long each wave takes to spawn
+    private static final String DEFAULT_LEVEL = "level2.txt";
+    private static final int DEFAULT_START = 500;
+    private static final int DEFAULT_MAX = 16000;
+    private static final int DEFAULT_WAVE_SECONDS = 5;
+    // Mana the wizard starts with (also the mana cap), so monsters reaching the house never end the game
+    private static final int MANA = Integer.MAX_VALUE / 2;
+    // Where the generated config is written for the game window
+    private static final String CONFIG_PATH = "build/stress-config.json";
+    // Slowest a tick can get before the scenario is stopped (in nanoseconds)
+    private static final long MAX_TICK_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) {
+        String level = DEFAULT_LEVEL;
+        int start = DEFAULT_START;
+        int max = DEFAULT_MAX;
+        int waveSeconds = DEFAULT_WAVE_SECONDS;
+        boolean window = false;
+
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--start":
+                    start = Integer.parseInt(args[++i]);
+                    break;
+                case "--max":
+                    max = Integer.parseInt(args[++i]);
+                    break;
+                case "--wave-seconds":
+                    waveSeconds = Integer.parseInt(args[++i]);
+                    break;
+                case "--window":
+                    window = true;
+                    break;
+                default:
+                    if(args[i].startsWith("--"))
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                    level = args[i];
+            }
+        }
+
+        JSONObject config = config(level, start, max, waveSeconds);
+
+        if(window) {
+            config.save(new File(CONFIG_PATH), "");
+            PApplet.main("WizardTD.App", new String[] {CONFIG_PATH, App.STRESS_OPTION});
+        } else {
+            run(config, new PrintWriter(System.out, true));
+        }
+    }
+
+    /**
+     * Generates a config with waves that double in size from start up to max monsters. Each wave starts as soon as the
+     * previous one has finished spawning.
+     * @param layout level file
+     * @param start number of monsters in the first wave
+     * @param max most monsters in a single wave
+     * @param waveSeconds how long each wave takes to spawn (in seconds)
+     * @return a JSONObject containing the game configuration
+     */
+    public static JSONObject config(String layout, int start, int max, int waveSeconds) {
+        JSONArray waves = new JSONArray();
+        for(int quantity = start; quantity <= max; quantity *= 2) {
+            JSONObject monster = new JSONObject();
+            monster.setString("type", "gremlin");
+            monster.setInt("hp", 1);
+            monster.setDouble("speed", 1);
+            monster.setDouble("armour", 0);
+            monster.setInt("mana_gained_on_kill", 0);
+            monster.setInt("quantity", quantity);
+
+            JSONObject wave = new JSONObject();
+            wave.setInt("duration", waveSeconds);
+            wave.setDouble("pre_wave_pause", 0);
+            wave.setJSONArray("monsters", new JSONArray().append(monster));
+            waves.append(wave);
+        }
+
+        JSONObject config = new JSONObject();
+        config.setString("layout", layout);
+        config.setJSONArray("waves", waves);
+        config.setInt("initial_tower_range", 96);
+        config.setDouble("initial_tower_firing_speed", 1.5);
+        config.setInt("initial_tower_damage", 40);
+        config.setInt("initial_mana", MANA);
+        config.setInt("initial_mana_cap", MANA);
+        config.setInt("initial_mana_gained_per_second", 0);
+        config.setInt("tower_cost", 1);
+        config.setInt("mana_pool_spell_initial_cost", 100);
+        config.setInt("mana_pool_spell_cost_increase_per_use", 150);
+        config.setDouble("mana_pool_spell_cap_multiplier", 1.5);
+        config.setDouble("mana_pool_spell_mana_gained_multiplier", 1.1);
+        return config;
+    }
+
+    /**
+     * Builds a tower on every grass tile of the game's map.
+     * @param sim the game simulation
+     * @return number of towers built
+     */
+    public static int placeTowersEverywhere(GameSimulation sim) {
+        for(Landmark grass: sim.getMap().getGrass())
+            sim.placeTower(grass.getX(), grass.getY());
+        return sim.getTowers().size();
+    }
+
+    /**
+     * Plays the scenario headless until every wave has spawned (or ticks get too slow), printing the live monster count
+     * and the mean and slowest tick time for every second of game time.
+     * @param config the generated game configuration
+     * @param out where to print the report
+     */
+    public static void run(JSONObject config, PrintWriter out) {
+        GameSimulation sim = GameSimulation.headless(config, new Map(config.getString("layout")), 1);
+        int towers = placeTowersEverywhere(sim);
+        Waves waves = sim.getWaves();
+        long endTick = waves.getWaveTimer().getWaveStartTick(waves.getNumberOfWaves() - 1)
+            + Timer.toTicks(config.getJSONArray("waves").getJSONObject(waves.getNumberOfWaves() - 1).getInt("duration"));
+
+        out.printf("%s: %d waves, %d towers%n", config.getString("layout"), waves.getNumberOfWaves(), towers);
+        out.printf("%8s %8s %10s %14s %14s%n", "seconds", "wave", "monsters", "mean tick ms", "max tick ms");
+
+        long slowest = 0;
+        while(sim.getTicks() < endTick && slowest < MAX_TICK_NANOS) {
+            long total = 0;
+            slowest = 0;
+
+            for(int i = 0; i < GameSimulation.TICKS_PER_SECOND; i++) {
+                long before = System.nanoTime();
+                sim.tick();
+                long taken = System.nanoTime() - before;
+                total += taken;
+                slowest = Math.max(slowest, taken);
+            }
+
+            out.printf("%8d %8d %10d %14.3f %14.3f%n", sim.getTicks() / GameSimulation.TICKS_PER_SECOND, waves.getWaveTimer().getWaveNumber(),
+                waves.getMonstersAlive(), total / 1e6 / GameSimulation.TICKS_PER_SECOND, slowest / 1e6);
+        }
+
+        if(slowest >= MAX_TICK_NANOS)
+            out.println("Stopped early: a tick took longer than " + MAX_TICK_NANOS / 1_000_000 + " ms");
+    }
+}
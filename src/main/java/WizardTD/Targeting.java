@@ -0,0 +1,104 @@
+package WizardTD;
+
+/**
+ * The ways a tower can choose which monster in range to shoot. FIRST and LAST go by how far monsters still have to walk
+ * to the wizard house, which is the order the spatial grid keeps its tiles in, so they're found without checking every
+ * monster in range. Whatever the targeting, ties go to the monster created first.
+ */
+public enum Targeting {
+    // Monster closest to the wizard house
+    FIRST("First") {
+        @Override
+        public float compare(Monster a, Monster b, int fromX, int fromY) {
+            return a.getDistanceToGo() - b.getDistanceToGo();
+        }
+    },
+    // Monster furthest from the wizard house
+    LAST("Last") {
+        @Override
+        public float compare(Monster a, Monster b, int fromX, int fromY) {
+            return b.getDistanceToGo() - a.getDistanceToGo();
+        }
+    },
+    // Monster with the most hp
+    STRONGEST("Strongest") {
+        @Override
+        public float compare(Monster a, Monster b, int fromX, int fromY) {
+            return b.getHp() - a.getHp();
+        }
+    },
+    // Monster with the least hp
+    WEAKEST("Weakest") {
+        @Override
+        public float compare(Monster a, Monster b, int fromX, int fromY) {
+            return a.getHp() - b.getHp();
+        }
+    },
+    // Monster closest to the tower (measured between top left corners)
+    CLOSEST("Closest") {
+        @Override
+        public float compare(Monster a, Monster b, int fromX, int fromY) {
+            return Geometry.distanceSquared(a.getX(), a.getY(), fromX, fromY) - Geometry.distanceSquared(b.getX(), b.getY(), fromX, fromY);
+        }
+    };
+
+    // Name shown in the game window
+    private final String label;
+
+    /**
+     * Constructs a Targeting constant given the name shown in the game window.
+     * @param label name of the targeting
+     */
+    Targeting(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Compares two monsters as targets.
+     * @param a a monster
+     * @param b another monster
+     * @param fromX x-coordinate of the tower's top left corner
+     * @param fromY y-coordinate of the tower's top left corner
+     * @return negative if a is the better target, positive if b is, 0 if they're as good as each other
+     */
+    public abstract float compare(Monster a, Monster b, int fromX, int fromY);
+
+    /**
+     * Indicates if a monster is a better target than the best found so far.
+     * @param mtr a monster
+     * @param best the best target found so far (or null if none found)
+     * @param fromX x-coordinate of the tower's top left corner
+     * @param fromY y-coordinate of the tower's top left corner
+     * @return true if the monster is the better target
+     */
+    public boolean isBetter(Monster mtr, Monster best, int fromX, int fromY) {
+        if(best == null)
+            return true;
+        float c = compare(mtr, best, fromX, fromY);
+        return c < 0 || (c == 0 && mtr.getNumber() < best.getNumber());
+    }
+
+    /**
+     * Indicates if monsters on a tile can be searched in order of their distance to the wizard house, stopping at the first one in range.
+     * @return true for FIRST and LAST
+     */
+    public boolean followsProgress() {
+        return this == FIRST || this == LAST;
+    }
+
+    /**
+     * Gets the targeting after this one (used to cycle through them in the game window).
+     * @return the next targeting
+     */
+    public Targeting next() {
+        return values()[(ordinal() + 1) % values().length];
+    }
+
+    /**
+     * Gets the name shown in the game window.
+     * @return name of the targeting
+     */
+    public String getLabel() {
+        return label;
+    }
+}
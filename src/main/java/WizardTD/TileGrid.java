@@ -0,0 +1,109 @@
+package WizardTD;
+
+import java.util.Arrays;
+
+/**
+ * What is on each of the map's 20 x 20 tiles, so that a click (or any other position on the map) can be turned straight
+ * into the grass, shrub, path or tower under it instead of checking every Landmark and every tower. A tile holds either
+ * one of the negative terrain constants below, or the id of the tower built on it (its index in GameSimulation's towers).
+ */
+public class TileGrid {
+    // Number of tiles across and down the map
+    public static final int COLUMNS = 20;
+    public static final int ROWS = 20;
+
+    // Terrain on tiles without a tower
+    public static final int GRASS = -1;
+    public static final int SHRUB = -2;
+    public static final int PATH = -3;
+    public static final int WIZARD_HOUSE = -4;
+
+    // Contents of each tile (indexed by row * COLUMNS + column)
+    private int[] tiles = new int[COLUMNS * ROWS];
+
+    /**
+     * Constructs a TileGrid object with every tile grass.
+     */
+    public TileGrid() {
+        Arrays.fill(tiles, GRASS);
+    }
+
+    /**
+     * Constructs a TileGrid object with the same contents as another one (so a game can build towers on its own copy of
+     * a Map's terrain).
+     * @param other the TileGrid to copy
+     */
+    public TileGrid(TileGrid other) {
+        tiles = other.tiles.clone();
+    }
+
+    /**
+     * Gets the tile a position on the map is on.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return index of the tile, or -1 if the position is off the map
+     */
+    public static int indexAt(int x, int y) {
+        int column = Math.floorDiv(x, App.CELLSIZE);
+        int row = Math.floorDiv(y - App.TOPBAR, App.CELLSIZE);
+        if(column < 0 || column >= COLUMNS || row < 0 || row >= ROWS)
+            return -1;
+        return row * COLUMNS + column;
+    }
+
+    /**
+     * Gets the x-coordinate of a tile's top left corner.
+     * @param index index of the tile
+     * @return x-coordinate
+     */
+    public static int getX(int index) {
+        return (index % COLUMNS) * App.CELLSIZE;
+    }
+
+    /**
+     * Gets the y-coordinate of a tile's top left corner.
+     * @param index index of the tile
+     * @return y-coordinate
+     */
+    public static int getY(int index) {
+        return (index / COLUMNS) * App.CELLSIZE + App.TOPBAR;
+    }
+
+    /**
+     * Indicates if a tile's contents are a tower.
+     * @param tile contents of a tile
+     * @return true if it's a tower id
+     */
+    public static boolean isTower(int tile) {
+        return tile >= 0;
+    }
+
+    /**
+     * Gets what's on a tile.
+     * @param index index of the tile
+     * @return a terrain constant or tower id
+     */
+    public int get(int index) {
+        return tiles[index];
+    }
+
+    /**
+     * Gets what's on the tile at a position on the map.
+     * @param x x-coordinate
+     * @param y y-coordinate
+     * @return a terrain constant or tower id, or SHRUB if the position is off the map (nothing can be built there)
+     */
+    public int getAt(int x, int y) {
+        int index = indexAt(x, y);
+        return index < 0 ? SHRUB : tiles[index];
+    }
+
+    /**
+     * Sets what's on a tile.
+     * @param index index of the tile
+     * @param tile a terrain constant or tower id
+     */
+    public void set(int index, int tile) {
+        tiles[index] = tile;
+    }
+}
@@ -1,32 +1,52 @@
-package WizardTD;
-
-/**
- * A game timer that counts in seconds when the game launches and can be shared across different classes.
- */
-public class Timer {
-    // Each second is made up of 60 tick cycles
-    private static double seconds;
-
-    /**
-     * Updates seconds every tick cycle - 60 tick cycles make a second.
-     */
-    public static void tick() {
-        seconds += 1 / (double)App.FPS;
-    }
-
-    /**
-     * Gets the current number of seconds.
-     * @return seconds as a double with 2 decimal places
-     */
-    public static double getSeconds() {
-        // Round seconds to 2 decimal places
-        return Double.parseDouble(String.format("%.2f", seconds));
-    }
-
-    /**
-     * Resets the timer.
-     */
-    public static void resetTimer() {
-        seconds = 0;
-    }
-}
+package WizardTD;
+
+/**
+ * A game clock that counts simulation ticks since the game started. Each game has its own Timer, which is shared 
+ * with the classes that need to know the time. Times that events happen at are worked out ahead of time as tick
+ * numbers, so the clock never has to deal with rounding seconds.
+ */
+public class Timer {
+    // Number of ticks since the game started (GameSimulation.TICKS_PER_SECOND ticks make a second)
+    private long ticks;
+
+    /**
+     * Advances the clock by a tick.
+     */
+    public void tick() {
+        ticks++;
+    }
+
+    /**
+     * Moves the clock forward to a later tick, skipping the ticks in between (used when nothing is happening in the game).
+     * @param tick the tick to move to
+     */
+    public void advanceTo(long tick) {
+        if(tick > ticks)
+            ticks = tick;
+    }
+
+    /**
+     * Gets the number of ticks since the game started.
+     * @return current tick number
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Gets the number of seconds since the game started.
+     * @return seconds since the game started
+     */
+    public double getSeconds() {
+        return ticks / (double)GameSimulation.TICKS_PER_SECOND;
+    }
+
+    /**
+     * Converts a number of seconds into the nearest number of ticks.
+     * @param seconds number of seconds
+     * @return number of ticks
+     */
+    public static long toTicks(double seconds) {
+        return Math.round(seconds * GameSimulation.TICKS_PER_SECOND);
+    }
+}
@@ -1,233 +1,380 @@
-package WizardTD;
-
-import processing.core.PApplet;
-import processing.core.PImage;
-import processing.data.JSONObject;
-import java.util.*;
-
-/**
- * Manages several crucial elements of the game in one place including current wave number, wave configurations, mana bar, 
- * monster collections, and winning and losing.
- */
-public class Waves {
-    // Keep track of current wave (1, 2, or 3)
-    private int waveNumber = 0;
-    // WaveTimer object
-    private WaveTimer waveTimer;
-    // Map Object
-    private Map map;
-    // ManaBar object
-    private ManaBar manaBar;
-    // Store number of monsters spawned
-    private int numberOfMonsters;
-    // Store the interval between monster spawns
-    private double spawnInterval;
-    // Track if any monsters were just killed (to top up mana bar)
-    private int lastMonstersKilled;
-    private int newMonstersKilled;
-    // Keep track of wizard's hp loss when monsters reach the house
-    private int lastWizardHpLoss;
-    private int newWizardHpLoss;
-    // Game is over! You lose
-    private boolean gameOver;
-    // If zero monstersLeft, you win!
-    private boolean weHaveAWinner;
-
-    // A hashmap to store different monster types and their images
-    private HashMap<String, ArrayList<PImage>> monsterImages;
-    // Store the collections of monsters for each wave
-    private ArrayList<MonsterCollection> monsterCollections = new ArrayList<>();
-
-    // The configuration for each wave
-    private ArrayList<JSONObject> waveConfs = new ArrayList<>();
-    // Store monster configurations from each wave configuration
-    private ArrayList<JSONObject> monsterConfs = new ArrayList<>();
-    // Durations of each wave
-    private int[] durations = new int[3];
-    // Pre-wave pauses for each wave
-    private double[] preWavePauses = new double[3];
-    // Monster types on this map
-    private String[] monsterTypes = new String[3];
-    // Monster health point, speed, and armour values for each wave
-    private int[] hps = new int[3];
-    private double[] speeds = new double[3];
-    private double[] armours = new double[3];
-    // Mana gained on each monster kill for each wave
-    private int[] manaGainedOnKills = new int[3];
-    // Quantity of monsters for each wave
-    private int[] quantities = new int[3];
-
-    /**
-     * Constructs a Waves object given a JSONObject, monsters images and a Map object.
-     * @param jsonObj a JSONObject
-     * @param monsterImages an ArrayList of monster images
-     * @param map a Map object
-     */
-    public Waves(JSONObject jsonObj, HashMap<String, ArrayList<PImage>> monsterImages, Map map) {
-        this.monsterImages = monsterImages;
-        this.map = map;
-
-        for(int i = 0; i < 3; i++) {
-            this.waveConfs.add(jsonObj.getJSONArray("waves").getJSONObject(i));
-            this.durations[i] = waveConfs.get(i).getInt("duration");
-            this.preWavePauses[i] = waveConfs.get(i).getDouble("pre_wave_pause");
-
-            this.monsterConfs.add(waveConfs.get(i).getJSONArray("monsters").getJSONObject(0));
-            this.monsterTypes[i] = monsterConfs.get(i).getString("type");
-            this.hps[i] = monsterConfs.get(i).getInt("hp");
-            this.speeds[i] = monsterConfs.get(i).getDouble("speed");
-            this.armours[i] = monsterConfs.get(i).getDouble("armour");
-            this.manaGainedOnKills[i] = monsterConfs.get(i).getInt("mana_gained_on_kill");
-            this.quantities[i] = monsterConfs.get(i).getInt("quantity");
-        }
-
-        // Create wave timer object for top left corner of gui
-        this.waveTimer = new WaveTimer(this.durations, this.preWavePauses);
-        this.waveNumber = this.waveTimer.getWaveNumber();
-        manaBar = new ManaBar(jsonObj);
-    }
-
-    /**
-     * Updates the current wave information including wave number, wave timer, monsters killed, mana gained/lost, and wins/losses.
-     */
-    public void tick() {      
-        // If it's a new wave (based on wave timer) then update waveNumber and create new collection of monsters (first triggered at getWaveNumber 1)
-        if (waveNumber != waveTimer.getWaveNumber()) {
-            // Update wave number
-            waveNumber = waveTimer.getWaveNumber();
-            if (waveNumber > 0) {
-                // Reset number of monsters
-                numberOfMonsters = 0;
-                // Create new monster collection
-                monsterCollections.add(new MonsterCollection(quantities[waveNumber - 1], monsterTypes[waveNumber - 1], hps[waveNumber - 1], speeds[waveNumber - 1], armours[waveNumber - 1], monsterImages, map));
-                // Get the interval at which the monsters spawn
-                spawnInterval = (double)durations[waveNumber - 1] / (double)quantities[waveNumber - 1];
-            }
-        }
-
-        // Only start spawning the monsters once wave 1 starts
-        if (waveNumber > 0) {
-            // Check if next spawnInterval reached for next spawn to occur
-            if (Timer.getSeconds() >= spawnInterval * numberOfMonsters && numberOfMonsters < (quantities[waveNumber - 1])) {
-                // Bring next monster to life
-                monsterCollections.get(waveNumber - 1).getMonsters().get(numberOfMonsters).bringToLife();
-                numberOfMonsters++;
-            }
-            newMonstersKilled = 0;
-            newWizardHpLoss = 0;
-
-            monsterCollections.forEach(mc -> mc.tick());
-
-            for(MonsterCollection mc: monsterCollections) {
-                newMonstersKilled += mc.getMonstersKilled();
-                newWizardHpLoss += mc.getWizardHpLoss();
-
-            }
-
-            // If all waves have begun, then check and see if we have a winner
-            if(waveNumber >= 3) {
-                int totalMonsters = 0;
-
-                for(MonsterCollection mc: monsterCollections) {
-                    totalMonsters += mc.getQuantity();
-
-                    for(Monster mtr: mc.getMonsters()) {
-                        if(mtr.getIsDead())
-                            totalMonsters--;
-                    }
-                }
-
-                if(totalMonsters == 0)
-                    weHaveAWinner = true;
-            }
-
-            // Update the mana bar
-            manaBar.tick(manaGainedOnKills[waveNumber - 1], newMonstersKilled - lastMonstersKilled, newWizardHpLoss - lastWizardHpLoss);
-        // Else if wave 1 hasn't started yet (allows for pre-wave 1 mana trickle)
-        } else {
-            manaBar.tick(0, 0, 0);
-        }
-
-        if(manaBar.getMana() == 0) {
-            gameOver = true;
-        }
-
-        // Update wave timer
-        waveTimer.tick();
-    
-        // Update lastMonstersKilled and lastWizardHit
-        lastMonstersKilled = newMonstersKilled;
-        lastWizardHpLoss = newWizardHpLoss;
-    }
-
-    /**
-     * Draws the monster waves to screen.
-     * @param app the PApplet class of the game
-     */
-    public void draw(PApplet app) {
-        // Only draw monsters once wave 1 starts
-        if (waveNumber > 0) {
-            monsterCollections.forEach(mc -> mc.draw(app));
-        }
-    }
-
-    /**
-     * Gets an ArrayList of all MonsterCollection's for the current and previous series of wave in this level.
-     * @return ArrayList of MonsterCollections
-     */
-    public ArrayList<MonsterCollection> getMonsters() {
-        return monsterCollections;
-    }
-    
-    /**
-     * Gets the WaveTimer object.
-     * @return Wavetimer object
-     */
-    public WaveTimer getWaveTimer() {
-        return waveTimer;
-    }
-
-    /**
-     * Gets the ManaBar object.
-     * @return ManaBar object
-     */
-    public ManaBar getManaBar() {
-        return manaBar;
-    }
-
-    /**
-     * Indicates if the user has lost the game due to too many monsters reaching the wizard house.
-     * @return true if user has lost the game
-     */
-    public boolean isGameOver() {
-        return gameOver;
-    }
-
-    /**
-     * Sets whether or not user has lost the game due to too many monsters reaching the wizard house.
-     * @param gameOver if the user has lost the game
-     */
-    public void setGameOver(boolean gameOver) {
-        this.gameOver = gameOver;
-    }
-
-    /**
-     * Indicates if the user has won the game by killing all the monsters across all waves for this level.
-     * @return true if the user has won the game
-     */
-    public boolean doWeHaveAWinner() {
-        return weHaveAWinner;
-    }
-
-    /**
-     * Updates the mana bar if game is paused (used by App.java).
-     */
-    public void manaTick() {
-        if (waveNumber > 0)
-            manaBar.tick(manaGainedOnKills[waveNumber - 1], newMonstersKilled - lastMonstersKilled, newWizardHpLoss - lastWizardHpLoss);
-        else
-            manaBar.tick(0, 0, 0);
-    }
-    
-}
-
+package WizardTD;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+import processing.data.JSONObject;
+import java.util.*;
+
+/**
+ * Manages several crucial elements of the game in one place including current wave number, wave configurations, mana bar, 
+ * monster collections, and winning and losing.
+ */
+public class Waves {
+    // Keep track of current wave (1 for wave 1, 0 before wave 1 starts)
+    private int waveNumber = 0;
+    // WaveTimer object and the scheduler that runs wave starts and monster spawns
+    private WaveTimer waveTimer;
+    private Scheduler scheduler;
+    // Used to randomly choose the paths monsters take (seeded so games can be replayed)
+    private Random random;
+    // Map Object
+    private Map map;
+    // ManaBar object
+    private ManaBar manaBar;
+    // Monsters killed and wizard's hp lost when monsters reach the house, in total and this tick (to update the mana bar)
+    private int monstersKilled;
+    private int monstersKilledThisTick;
+    private int wizardHpLoss;
+    private int wizardHpLossThisTick;
+    // Monsters across all waves that haven't been killed yet (including ones yet to spawn)
+    private int monstersRemaining;
+    // Game is over! You lose
+    private boolean gameOver;
+    // If zero monstersLeft, you win!
+    private boolean weHaveAWinner;
+
+    // A hashmap to store different monster types and their images
+    private HashMap<String, ArrayList<PImage>> monsterImages;
+    // Store the collections of monsters for each wave
+    private ArrayList<MonsterCollection> monsterCollections = new ArrayList<>();
+    // The collections that still have monsters to spawn or on screen (cleared waves are retired from ticking and drawing)
+    private ArrayList<MonsterCollection> activeCollections = new ArrayList<>();
+    // Live monsters bucketed by the tile they're on (used by towers to find targets)
+    private SpatialGrid grid;
+    // Storage for every monster's data (reused from game to game)
+    private MonsterPool pool;
+
+    // The configuration for each wave
+    private ArrayList<JSONObject> waveConfs = new ArrayList<>();
+    // Store monster configurations from each wave configuration
+    private ArrayList<JSONObject> monsterConfs = new ArrayList<>();
+    // Durations of each wave
+    private int[] durations;
+    // Pre-wave pauses for each wave
+    private double[] preWavePauses;
+    // Monster types on this map
+    private String[] monsterTypes;
+    // Monster health point, speed, and armour values for each wave
+    private int[] hps;
+    private double[] speeds;
+    private double[] armours;
+    // Mana gained on each monster kill for each wave
+    private int[] manaGainedOnKills;
+    // Quantity of monsters for each wave
+    private int[] quantities;
+
+    /**
+     * Constructs a Waves object given a JSONObject, monsters images, a Map object, the game clock and the game's scheduler.
+     * @param jsonObj a JSONObject
+     * @param monsterImages an ArrayList of monster images
+     * @param map a Map object
+     * @param timer the game clock
+     * @param scheduler the game's scheduler
+     * @param random used to randomly choose the paths monsters take
+     */
+    public Waves(JSONObject jsonObj, HashMap<String, ArrayList<PImage>> monsterImages, Map map, Timer timer, Scheduler scheduler, Random random) {
+        this(jsonObj, monsterImages, map, timer, scheduler, random, new MonsterPool());
+    }
+
+    /**
+     * Constructs a Waves object that stores its monsters in an existing pool (e.g. the last game's), giving back
+     * anything still in the pool first.
+     * @param jsonObj a JSONObject
+     * @param monsterImages an ArrayList of monster images
+     * @param map a Map object
+     * @param timer the game clock
+     * @param scheduler the game's scheduler
+     * @param random used to randomly choose the paths monsters take
+     * @param pool the pool to store monsters in
+     */
+    public Waves(JSONObject jsonObj, HashMap<String, ArrayList<PImage>> monsterImages, Map map, Timer timer, Scheduler scheduler, Random random, MonsterPool pool) {
+        this.monsterImages = monsterImages;
+        this.map = map;
+        this.scheduler = scheduler;
+        this.random = random;
+        this.grid = new SpatialGrid(map);
+        this.pool = pool;
+        pool.clear();
+
+        // The config can have any number of waves
+        int numberOfWaves = jsonObj.getJSONArray("waves").size();
+        this.durations = new int[numberOfWaves];
+        this.preWavePauses = new double[numberOfWaves];
+        this.monsterTypes = new String[numberOfWaves];
+        this.hps = new int[numberOfWaves];
+        this.speeds = new double[numberOfWaves];
+        this.armours = new double[numberOfWaves];
+        this.manaGainedOnKills = new int[numberOfWaves];
+        this.quantities = new int[numberOfWaves];
+
+        for(int i = 0; i < numberOfWaves; i++) {
+            this.waveConfs.add(jsonObj.getJSONArray("waves").getJSONObject(i));
+            this.durations[i] = waveConfs.get(i).getInt("duration");
+            this.preWavePauses[i] = waveConfs.get(i).getDouble("pre_wave_pause");
+
+            this.monsterConfs.add(waveConfs.get(i).getJSONArray("monsters").getJSONObject(0));
+            this.monsterTypes[i] = monsterConfs.get(i).getString("type");
+            this.hps[i] = monsterConfs.get(i).getInt("hp");
+            this.speeds[i] = monsterConfs.get(i).getDouble("speed");
+            this.armours[i] = monsterConfs.get(i).getDouble("armour");
+            this.manaGainedOnKills[i] = monsterConfs.get(i).getInt("mana_gained_on_kill");
+            this.quantities[i] = monsterConfs.get(i).getInt("quantity");
+            this.monstersRemaining += this.quantities[i];
+        }
+
+        // Create wave timer object for top left corner of gui
+        this.waveTimer = new WaveTimer(this.durations, this.preWavePauses, timer);
+        this.waveNumber = this.waveTimer.getWaveNumber();
+        manaBar = new ManaBar(jsonObj, timer);
+
+        // Schedule the start of each wave
+        for(int i = 0; i < durations.length; i++) {
+            int waveIndex = i;
+            scheduler.schedule(waveTimer.getWaveStartTick(waveIndex), () -> startWave(waveIndex));
+        }
+    }
+
+    /**
+     * Starts a new wave: updates the wave number, sets up the wave's collection of monsters and spawns the first monster.
+     * @param waveIndex index of the wave (0 for wave 1)
+     */
+    private void startWave(int waveIndex) {
+        waveNumber = waveIndex + 1;
+        waveTimer.startWave(waveNumber);
+        // Create new monster collection
+        monsterCollections.add(new MonsterCollection(quantities[waveIndex], monsterTypes[waveIndex], hps[waveIndex], speeds[waveIndex], armours[waveIndex], monsterImages, map, random, grid, pool));
+        activeCollections.add(monsterCollections.get(waveIndex));
+        // The first monster spawns straight away
+        spawnMonster(waveIndex, 0);
+    }
+
+    /**
+     * Spawns a monster and schedules the next monster in the wave to spawn.
+     * @param waveIndex index of the wave (0 for wave 1)
+     * @param n index of the monster in the wave
+     */
+    private void spawnMonster(int waveIndex, int n) {
+        monsterCollections.get(waveIndex).spawn();
+
+        if(n + 1 < quantities[waveIndex])
+            scheduler.schedule(getSpawnTick(waveIndex, n + 1), () -> spawnMonster(waveIndex, n + 1));
+    }
+
+    /**
+     * Updates the current wave information including monsters killed, mana gained/lost, and wins/losses.
+     * Wave starts and monster spawns are run by the scheduler.
+     */
+    public void tick() {      
+        // Only update the monsters once wave 1 starts
+        if (waveNumber > 0) {
+            monstersKilledThisTick = 0;
+            wizardHpLossThisTick = 0;
+
+            // Collections count their monsters' deaths and hits on the wizard house as they happen, so only the change
+            // over this tick is added up (collections with nothing on the move or dying don't need ticking)
+            for(MonsterCollection mc: activeCollections) {
+                if(!mc.hasActiveMonsters())
+                    continue;
+
+                int killed = mc.getMonstersKilled();
+                int hpLoss = mc.getWizardHpLoss();
+                mc.tick();
+                monstersKilledThisTick += mc.getMonstersKilled() - killed;
+                wizardHpLossThisTick += mc.getWizardHpLoss() - hpLoss;
+            }
+            // Monsters have moved, so put them back in order for towers targeting the first or last monster
+            grid.sortByProgress();
+
+            monstersKilled += monstersKilledThisTick;
+            wizardHpLoss += wizardHpLossThisTick;
+            monstersRemaining -= monstersKilledThisTick;
+            if(monstersKilledThisTick > 0)
+                activeCollections.removeIf(mc -> mc.isCleared());
+
+            // If all waves have begun and every monster has been killed, we have a winner
+            if(waveNumber >= durations.length && monstersRemaining == 0)
+                weHaveAWinner = true;
+
+            // Update the mana bar
+            manaBar.tick(manaGainedOnKills[waveNumber - 1], monstersKilledThisTick, wizardHpLossThisTick);
+        // Else if wave 1 hasn't started yet (allows for pre-wave 1 mana trickle)
+        } else {
+            manaBar.tick(0, 0, 0);
+        }
+
+        if(manaBar.getMana() == 0) {
+            gameOver = true;
+        }
+    }
+
+    /**
+     * Works out the tick a monster spawns on. Monsters are spread evenly across the wave's duration, so monster n spawns
+     * n * (duration / quantity) seconds into the wave. Worked out in whole ticks (rounding up) so there's no rounding drift.
+     * @param waveIndex index of the wave (0 for wave 1)
+     * @param n index of the monster in the wave
+     * @return the tick monster n spawns on
+     */
+    private long getSpawnTick(int waveIndex, int n) {
+        long ticksPerWave = (long)durations[waveIndex] * GameSimulation.TICKS_PER_SECOND;
+        return waveTimer.getWaveStartTick(waveIndex) + (n * ticksPerWave + quantities[waveIndex] - 1) / quantities[waveIndex];
+    }
+
+    /**
+     * Draws the monster waves to screen.
+     * @param app the PApplet class of the game
+     * @param alpha how far the game is between the last tick and the next (used to interpolate monster positions)
+     */
+    public void draw(PApplet app, float alpha) {
+        // Only draw monsters once wave 1 starts
+        if (waveNumber > 0) {
+            activeCollections.forEach(mc -> mc.draw(app, alpha));
+        }
+    }
+
+    /**
+     * Gets an ArrayList of all MonsterCollection's for the current and previous series of wave in this level.
+     * @return ArrayList of MonsterCollections
+     */
+    public ArrayList<MonsterCollection> getMonsters() {
+        return monsterCollections;
+    }
+    
+    /**
+     * Puts the monsters on the map's paths again after the level has been edited (see MonsterCollection.reroute), and
+     * updates which tiles of the spatial grid monsters can be on.
+     * @return true if every monster was put on a path
+     */
+    public boolean reroute() {
+        boolean rerouted = true;
+        for(MonsterCollection mc: monsterCollections) {
+            if(!mc.reroute(map))
+                rerouted = false;
+        }
+        grid.updatePathCells(map);
+        return rerouted;
+    }
+
+    /**
+     * Gets the spatial grid of live monsters.
+     * @return SpatialGrid object
+     */
+    public SpatialGrid getGrid() {
+        return grid;
+    }
+
+    /**
+     * Gets the pool the monsters are stored in.
+     * @return MonsterPool object
+     */
+    public MonsterPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Gets the number of waves in this level.
+     * @return number of waves
+     */
+    public int getNumberOfWaves() {
+        return durations.length;
+    }
+
+    /**
+     * Gets the number of monsters that have been killed across all waves.
+     * @return number of monsters killed
+     */
+    public int getMonstersKilled() {
+        return monstersKilled;
+    }
+
+    /**
+     * Gets how much hp the wizard has lost to monsters reaching the wizard house across all waves.
+     * @return health points the wizard has lost
+     */
+    public int getWizardHpLoss() {
+        return wizardHpLoss;
+    }
+
+    /**
+     * Gets the number of monsters across all waves that haven't been killed yet (including ones yet to spawn).
+     * @return number of monsters remaining
+     */
+    public int getMonstersRemaining() {
+        return monstersRemaining;
+    }
+
+    /**
+     * Counts the monsters that are on their way to the wizard house.
+     * @return number of live monsters
+     */
+    public int getMonstersAlive() {
+        int alive = 0;
+        for(MonsterCollection mc: activeCollections)
+            alive += mc.getMonstersAlive();
+        return alive;
+    }
+
+    /**
+     * Indicates if any monsters are on the move or dying.
+     * @return true if any monster is alive or dying
+     */
+    public boolean hasActiveMonsters() {
+        for(MonsterCollection mc: activeCollections) {
+            if(mc.hasActiveMonsters())
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the WaveTimer object.
+     * @return Wavetimer object
+     */
+    public WaveTimer getWaveTimer() {
+        return waveTimer;
+    }
+
+    /**
+     * Gets the ManaBar object.
+     * @return ManaBar object
+     */
+    public ManaBar getManaBar() {
+        return manaBar;
+    }
+
+    /**
+     * Indicates if the user has lost the game due to too many monsters reaching the wizard house.
+     * @return true if user has lost the game
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Sets whether or not user has lost the game due to too many monsters reaching the wizard house.
+     * @param gameOver if the user has lost the game
+     */
+    public void setGameOver(boolean gameOver) {
+        this.gameOver = gameOver;
+    }
+
+    /**
+     * Indicates if the user has won the game by killing all the monsters across all waves for this level.
+     * @return true if the user has won the game
+     */
+    public boolean doWeHaveAWinner() {
+        return weHaveAWinner;
+    }
+
+    /**
+     * Updates the mana bar if game is paused (used by App.java).
+     */
+    public void manaTick() {
+        // Nothing is killed and nothing reaches the wizard house while the game is paused
+        if (waveNumber > 0)
+            manaBar.tick(manaGainedOnKills[waveNumber - 1], 0, 0);
+        else
+            manaBar.tick(0, 0, 0);
+    }
+    
+}
+
@@ -0,0 +1,85 @@
+package WizardTD;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+import processing.data.JSONObject;
+
+public class BalanceRunnerTest {
+    private BalanceRunner createRunner() {
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        List<BalanceRunner.ScriptedAction> script = new ArrayList<>();
+        script.add(BalanceRunner.ScriptedAction.parsePlacement("8,4"));
+        script.add(BalanceRunner.ScriptedAction.parse("5 tower 10 4"));
+        return new BalanceRunner(config, new Map(config.getString("layout")), script, Timer.toTicks(120));
+    }
+
+    @Test
+    public void sameSeedPlaysTheSameGame() {
+        BalanceRunner runner = createRunner();
+
+        BalanceRunner.RunResult first = runner.play(42);
+        BalanceRunner.RunResult second = runner.play(42);
+
+        assertEquals(first.ticks, second.ticks);
+        assertEquals(first.won, second.won);
+        assertEquals(first.mana, second.mana);
+    }
+
+    @Test
+    public void parallelRunsMatchSerialRuns() throws Exception {
+        BalanceRunner runner = createRunner();
+
+        List<BalanceRunner.RunResult> parallel = runner.run(8, 100, 4);
+
+        for(int i = 0; i < parallel.size(); i++) {
+            BalanceRunner.RunResult serial = runner.play(100 + i);
+            assertEquals(serial.seed, parallel.get(i).seed);
+            assertEquals(serial.ticks, parallel.get(i).ticks);
+            assertEquals(serial.mana, parallel.get(i).mana);
+        }
+    }
+
+    @Test
+    public void badScriptLinesAreRejected() {
+        for(String line: new String[] {"5", "5 tower", "5 tower 3", "5 speed 3 4 5", "5 mana 3"}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> BalanceRunner.ScriptedAction.parse(line));
+            assertEquals("Bad script line: " + line, e.getMessage());
+        }
+        assertThrows(IllegalArgumentException.class, () -> BalanceRunner.ScriptedAction.parse("5 sell 3 4"));
+        assertNull(BalanceRunner.ScriptedAction.parse("# 5 tower 3"));
+    }
+
+    @Test
+    public void maxedOutSpeedUpgradesAreGivenUp() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        Landmark grass = sim.getMap().getGrass().get(0);
+        Tower twr = sim.placeTower(grass.getX(), grass.getY());
+        twr.setSpeed(0);
+        int col = grass.getX() / App.CELLSIZE;
+        int row = (grass.getY() - App.TOPBAR) / App.CELLSIZE;
+
+        // Given up on (rather than waiting for mana forever), without spending anything
+        int mana = sim.getManaBar().getMana();
+        assertTrue(BalanceRunner.ScriptedAction.parse("0 speed " + col + " " + row).apply(sim));
+        assertEquals(mana, sim.getManaBar().getMana());
+        assertEquals(0, twr.getSpeed());
+        // Other upgrades of the tower still go ahead
+        assertTrue(BalanceRunner.ScriptedAction.parse("0 damage " + col + " " + row).apply(sim));
+        assertEquals(1, twr.getDamageUpgradeLevel());
+    }
+
+    @Test
+    public void noGamesIsRejectedOrReportedAsSuch() {
+        assertThrows(IllegalArgumentException.class, () -> BalanceRunner.main(new String[] {"config.json", "level1.txt", "--runs", "0"}));
+
+        StringWriter report = new StringWriter();
+        createRunner().report(new ArrayList<>(), new PrintWriter(report, true));
+        assertEquals("No games were played", report.toString().trim());
+    }
+}
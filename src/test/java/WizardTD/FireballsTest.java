@@ -0,0 +1,68 @@
+package WizardTD;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import processing.data.JSONObject;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FireballsTest {
+    @Test
+    public void fireballsFlyStraightAtTheirMonsterOrFizzleOut() {
+        Soundboard.setMuted(true);
+        Map map = new Map("level2.txt");
+        MonsterCollection mc = new MonsterCollection(2, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), new SpatialGrid(map), new MonsterPool());
+        Monster first = mc.spawn();
+        Monster second = mc.spawn();
+        mc.tick();
+
+        // 50 pixels away diagonally at 3.5 pixels per tick, so 37.5 pixels from the edge of the monster
+        Fireballs fireballs = new Fireballs(null);
+        fireballs.fire(first.getXCenter() + 30, first.getYCenter() + 40, first, 40);
+        fireballs.fire(second.getXCenter() - 30, second.getYCenter() - 40, second, 40);
+        second.setIsDying(true);
+        assertEquals(2, fireballs.size());
+
+        int ticks = 0;
+        while(!fireballs.isEmpty()) {
+            fireballs.tick();
+            ticks++;
+        }
+        assertEquals((int)Math.ceil(37.5 / 3.5), ticks);
+        assertEquals(100 - 20, first.getHp());
+        assertEquals(100, second.getHp());
+    }
+
+    @Test
+    public void fireballsHitMonstersTheyPassThrough() {
+        // Straight through, diagonally through a corner, and starting or ending inside
+        assertTrue(Geometry.segmentIntersectsRect(0, 15, 100, 15, 40, 10, 60, 30));
+        assertTrue(Geometry.segmentIntersectsRect(35, 0, 45, 15, 40, 10, 60, 30));
+        assertTrue(Geometry.segmentIntersectsRect(50, 20, 500, 20, 40, 10, 60, 30));
+        assertTrue(Geometry.segmentIntersectsRect(-500, -500, 50, 20, 40, 10, 60, 30));
+        // Stopping short, passing by and passing the corner
+        assertFalse(Geometry.segmentIntersectsRect(0, 15, 39, 15, 40, 10, 60, 30));
+        assertFalse(Geometry.segmentIntersectsRect(50, 0, 50, 9, 40, 10, 60, 30));
+        assertFalse(Geometry.segmentIntersectsRect(30, 10, 40, 0, 40, 10, 60, 30));
+        assertFalse(Geometry.segmentIntersectsRect(0, 31, 100, 31, 40, 10, 60, 30));
+    }
+
+    @Test
+    public void towersKeepFiringWhileTheirFireballsAreInTheAir() {
+        Soundboard.setMuted(true);
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        config.setDouble("initial_tower_firing_speed", 10);
+        GameSimulation sim = new GameSimulation(config, new Map(config.getString("layout")), new HashMap<>(), null, null, new Random(1));
+
+        assertTrue(StressScenario.placeTowersEverywhere(sim) > 0);
+
+        int mostInTheAir = 0;
+        while(!sim.isOver() && sim.getTicks() < 60 * 60) {
+            sim.tick();
+            mostInTheAir = Math.max(mostInTheAir, sim.getFireballs().size());
+        }
+        assertTrue(mostInTheAir > sim.getTowers().size(), "most fireballs in the air: " + mostInTheAir);
+    }
+}
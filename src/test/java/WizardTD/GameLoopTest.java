@@ -0,0 +1,51 @@
+package WizardTD;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameLoopTest {
+    @Test
+    public void ticksAtFixedRateRegardlessOfFrameTimes() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        GameLoop loop = new GameLoop(sim);
+
+        // First update only starts the clock
+        assertEquals(0, loop.update(0));
+        // A slow frame (two and a half ticks long) runs two ticks and keeps the remainder for interpolation
+        assertEquals(2, loop.update(GameLoop.TICK_NANOS * 5 / 2));
+        assertEquals(0.5f, loop.getAlpha(), 0.01f);
+        // A fast frame (half a tick long) completes the third tick
+        assertEquals(1, loop.update(GameLoop.TICK_NANOS * 3));
+        assertEquals(3, sim.getTicks());
+    }
+
+    @Test
+    public void pausedTimeIsNotSimulated() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        GameLoop loop = new GameLoop(sim);
+
+        loop.update(0);
+        loop.skip(GameLoop.TICK_NANOS * 100);
+        assertEquals(1, loop.update(GameLoop.TICK_NANOS * 101));
+    }
+
+    @Test
+    public void speedMultiplierRunsMoreTicksPerFrame() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        GameLoop loop = new GameLoop(sim);
+        loop.setSpeed(2);
+
+        loop.update(0);
+        assertEquals(2, loop.update(GameLoop.TICK_NANOS));
+    }
+
+    @Test
+    public void maxSpeedRunsManyTicksPerFrame() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        GameLoop loop = new GameLoop(sim);
+        loop.setSpeed(GameLoop.MAX_SPEED);
+
+        // Ticks aren't tied to the time passed, only to the frame budget
+        assertTrue(loop.update(0) > 1);
+    }
+}
@@ -0,0 +1,221 @@
+package WizardTD;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import processing.data.JSONObject;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GameSimulationTest {
+    // Generous upper limit on how long a game can run for (10 minutes of game time)
+    private static final long MAX_TICKS = 60 * 60 * 10;
+
+    @Test
+    public void headlessGameWithoutTowersIsLost() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+
+        sim.runToCompletion(MAX_TICKS);
+
+        assertTrue(sim.isGameOver());
+        assertFalse(sim.isWon());
+        assertEquals(0, sim.getManaBar().getMana());
+    }
+
+    @Test
+    public void towersPassOverMonstersKilledThisTick() {
+        Soundboard.setMuted(true);
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        // Level 1 has one path, so the monsters follow each other along it
+        Map map = new Map("level1.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterCollection mc = new MonsterCollection(2, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), grid, new MonsterPool());
+        Monster first = mc.spawn();
+        for(int i = 0; i < 40; i++)
+            mc.tick();
+        Monster second = mc.spawn();
+        for(int i = 0; i < 40; i++)
+            mc.tick();
+
+        // A fireball kills the first monster, then a tower standing on it chooses a target the same tick
+        Fireballs fireballs = new Fireballs(null);
+        fireballs.fire(first.getXCenter(), first.getYCenter(), first, 1000);
+        fireballs.decide(false);
+        fireballs.resolve();
+        assertTrue(first.getIsDying());
+        assertTrue(first.getIsAlive());
+
+        Tower tower = new Tower(first.getX(), first.getY(), null, fireballs, config, new Timer(), grid);
+        tower.tick();
+        assertEquals(1, fireballs.size());
+        while(!fireballs.isEmpty())
+            fireballs.tick();
+        assertEquals(100 - (int)(config.getInt("initial_tower_damage") * 0.5), second.getHp());
+    }
+
+    @Test
+    public void towerPlacementChargesMana() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        Landmark grass = sim.getMap().getGrass().get(0);
+        int mana = sim.getManaBar().getMana();
+
+        assertNotNull(sim.placeTower(grass.getX(), grass.getY()));
+        assertEquals(mana - sim.getInitialTowerCost(), sim.getManaBar().getMana());
+        // Can't build a second tower on the same tile
+        assertNull(sim.placeTower(grass.getX(), grass.getY()));
+        assertEquals(1, sim.getTowers().size());
+    }
+
+    @Test
+    public void towersAreOnlyBuiltOnFreeGrassAndFoundByPosition() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        Map map = sim.getMap();
+
+        // Nothing can be built on shrubs, paths, the wizard house or off the map
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            if(map.getTiles().get(tile) != TileGrid.GRASS)
+                assertNull(sim.placeTower(TileGrid.getX(tile), TileGrid.getY(tile)));
+        }
+        assertNull(sim.placeTower(-App.CELLSIZE, App.TOPBAR));
+        assertTrue(sim.getTowers().isEmpty());
+
+        // Any point on a tower's tile finds it, and the shared Map's tiles don't change
+        Landmark grass = map.getGrass().get(5);
+        Tower twr = sim.placeTower(grass.getX(), grass.getY());
+        assertSame(twr, sim.getTowerAt(grass.getX() + App.CELLSIZE - 1, grass.getY() + App.CELLSIZE - 1));
+        assertNull(sim.getTowerAt(grass.getX() + App.CELLSIZE, grass.getY()));
+        assertEquals(TileGrid.GRASS, map.getTiles().getAt(grass.getX(), grass.getY()));
+    }
+
+    @Test
+    public void wavesStartOnPrecomputedTicks() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+        WaveTimer waveTimer = sim.getWaves().getWaveTimer();
+
+        // Wave 1 has a 0.5 second pre-wave pause, wave 2 starts 8 + 10 seconds later
+        assertEquals(30, waveTimer.getWaveStartTick(0));
+        assertEquals(30 + 18 * 60, waveTimer.getWaveStartTick(1));
+
+        while(sim.getTicks() < waveTimer.getWaveStartTick(0))
+            sim.tick();
+        assertEquals(1, waveTimer.getWaveNumber());
+    }
+
+    @Test
+    public void idleTicksAreSkippedToTheNextEvent() {
+        GameSimulation sim = GameSimulation.headless("config.json");
+
+        // Nothing happens before wave 1 starts on tick 30
+        assertTrue(sim.isIdle());
+        sim.skipIdleTicks(Long.MAX_VALUE);
+        assertEquals(29, sim.getTicks());
+
+        sim.tick();
+        assertEquals(1, sim.getWaves().getWaveTimer().getWaveNumber());
+        assertFalse(sim.isIdle());
+    }
+
+    @Test
+    public void manaTrickleAndCountdownDontStopIdleTicksBeingSkipped() {
+        // Wave 1 starts after a 5 second pause, with mana trickling in and the countdown changing along the way
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        config.getJSONArray("waves").getJSONObject(0).setDouble("pre_wave_pause", 5);
+        GameSimulation skipped = GameSimulation.headless(config);
+        GameSimulation ticked = GameSimulation.headless(config);
+
+        skipped.skipIdleTicks(Long.MAX_VALUE);
+        assertEquals(5 * 60 - 1, skipped.getTicks());
+
+        // The mana and countdown catch up to where they'd be if every tick had been run
+        while(ticked.getTicks() < skipped.getTicks())
+            ticked.tick();
+        assertEquals(ticked.getManaBar().getMana(), skipped.getManaBar().getMana());
+        assertEquals(ticked.getWaves().getWaveTimer().getText(), skipped.getWaves().getWaveTimer().getText());
+        // 200 to start with plus 1 mana every half a second up to tick 270
+        assertEquals(209, skipped.getManaBar().getMana());
+        assertEquals("Wave 1 starts 0", skipped.getWaves().getWaveTimer().getText());
+
+        skipped.tick();
+        ticked.tick();
+        assertEquals(ticked.getManaBar().getMana(), skipped.getManaBar().getMana());
+        assertEquals("Wave 2 starts 18", skipped.getWaves().getWaveTimer().getText());
+    }
+
+    @Test
+    public void configCanHaveAnyNumberOfWaves() {
+        // Waves of 1, 2, 4, 8 and 16 monsters, each spawning over 1 second
+        GameSimulation sim = GameSimulation.headless(StressScenario.config("level1.txt", 1, 16, 1), new Map("level1.txt"), 1);
+        Waves waves = sim.getWaves();
+
+        assertEquals(5, waves.getNumberOfWaves());
+        assertEquals(4 * 60, waves.getWaveTimer().getWaveStartTick(4));
+
+        // Every monster is on the map once the last wave has finished spawning
+        while(sim.getTicks() < 5 * 60)
+            sim.tick();
+        assertEquals(31, waves.getMonstersAlive());
+        assertFalse(sim.isOver());
+    }
+
+    @Test
+    public void killsAndHitsAreCountedAsTheyHappen() {
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        config.setInt("initial_mana", 100000);
+        config.setInt("initial_mana_cap", 200000);
+        GameSimulation sim = GameSimulation.headless(config, new Map(config.getString("layout")), 1);
+        Waves waves = sim.getWaves();
+        for(Landmark grass: sim.getMap().getGrass())
+            sim.placeTower(grass.getX(), grass.getY());
+
+        int total = waves.getMonstersRemaining();
+        while(!sim.isOver() && sim.getTicks() < MAX_TICKS) {
+            sim.tick();
+
+            int killed = 0;
+            int hpLoss = 0;
+            for(MonsterCollection mc: waves.getMonsters()) {
+                killed += mc.getMonstersKilled();
+                hpLoss += mc.getWizardHpLoss();
+            }
+            assertEquals(killed, waves.getMonstersKilled());
+            assertEquals(hpLoss, waves.getWizardHpLoss());
+            assertEquals(total - killed, waves.getMonstersRemaining());
+        }
+
+        assertTrue(sim.isWon());
+        assertEquals(0, waves.getMonstersRemaining());
+        assertEquals(0, waves.getMonstersAlive());
+        assertFalse(waves.hasActiveMonsters());
+    }
+
+    @Test
+    public void parallelTicksPlayOutTheSameAsSerialOnes() {
+        // Towers everywhere that shoot every tick and barely hurt, so there are lots of fireballs in the air
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        config.setInt("initial_mana", 100000);
+        config.setInt("initial_mana_cap", 200000);
+        config.setDouble("initial_tower_firing_speed", GameSimulation.TICKS_PER_SECOND);
+        config.setInt("initial_tower_damage", 2);
+        Map map = new Map(config.getString("layout"));
+        GameSimulation parallel = GameSimulation.headless(config, map, 1);
+        GameSimulation serial = GameSimulation.headless(config, map, 1);
+        serial.setParallel(false);
+        assertTrue(StressScenario.placeTowersEverywhere(parallel) >= 64);
+        StressScenario.placeTowersEverywhere(serial);
+
+        int mostFireballs = 0;
+        while(!serial.isOver() && serial.getTicks() < 60 * 60) {
+            parallel.tick();
+            serial.tick();
+            mostFireballs = Math.max(mostFireballs, serial.getFireballs().size());
+
+            assertEquals(serial.getFireballs().size(), parallel.getFireballs().size());
+            assertEquals(serial.getManaBar().getMana(), parallel.getManaBar().getMana());
+            assertEquals(serial.getWaves().getMonstersKilled(), parallel.getWaves().getMonstersKilled());
+            assertEquals(serial.getWaves().getWizardHpLoss(), parallel.getWaves().getWizardHpLoss());
+        }
+        assertEquals(serial.isOver(), parallel.isOver());
+        assertTrue(mostFireballs >= 512, "most fireballs in the air: " + mostFireballs);
+    }
+}
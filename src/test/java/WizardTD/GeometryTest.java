@@ -0,0 +1,70 @@
+package WizardTD;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeometryTest {
+    @Test
+    public void squaredDistancesDontOverflow() {
+        assertEquals(25, Geometry.distanceSquared(0, 0, 3, 4));
+        assertEquals(25, Geometry.distanceSquared(3, 4, 0, 0));
+        assertEquals(20_000_000_000L, Geometry.distanceSquared(0, 0, 100_000, 100_000));
+
+        // A point exactly on the radius is in the circle
+        assertTrue(Geometry.pointInCircle(3, 4, 0, 0, 5));
+        assertFalse(Geometry.pointInCircle(3, 5, 0, 0, 5));
+        assertTrue(Geometry.pointInCircle(100_000, 0, 0, 0, 100_000));
+    }
+
+    @Test
+    public void cornerExactlyOnTheRadiusIsInRange() {
+        // The top left corner is 3, 4 from the centre, every other corner is further away
+        assertTrue(Geometry.cornerInCircle(3, 4, 20, 0, 0, 5));
+        assertFalse(Geometry.cornerInCircle(3, 4, 20, 0, 0, 4));
+        // Same again for the bottom right corner
+        assertTrue(Geometry.cornerInCircle(-23, -24, 20, 0, 0, 5));
+        assertFalse(Geometry.cornerInCircle(-23, -24, 20, 0, 0, 4));
+
+        assertTrue(Geometry.circleIntersectsRect(3, 4, 23, 24, 0, 0, 5));
+        assertFalse(Geometry.circleIntersectsRect(3, 4, 23, 24, 0, 0, 4));
+        // An edge exactly on the radius
+        assertTrue(Geometry.circleIntersectsRect(10, -5, 30, 5, 0, 0, 10));
+        assertFalse(Geometry.circleIntersectsRect(11, -5, 30, 5, 0, 0, 10));
+    }
+
+    @Test
+    public void boxFullyInsideTheCircleIsInRange() {
+        assertTrue(Geometry.cornerInCircle(-10, -10, 20, 0, 0, 100));
+        assertTrue(Geometry.circleIntersectsRect(-10, -10, 10, 10, 0, 0, 100));
+    }
+
+    @Test
+    public void circleCentreInsideTheBox() {
+        // The circle is inside the box, so it overlaps the box without any corner being in range
+        assertFalse(Geometry.cornerInCircle(-50, -50, 100, 0, 0, 10));
+        assertTrue(Geometry.circleIntersectsRect(-50, -50, 50, 50, 0, 0, 10));
+        // Even a circle with no size
+        assertTrue(Geometry.circleIntersectsRect(-50, -50, 50, 50, 0, 0, 0));
+    }
+
+    @Test
+    public void segmentsHitBoxesAnywhereAlongThem() {
+        // Straight through the box, from one side to the other
+        assertTrue(Geometry.segmentIntersectsRect(-10, 5, 30, 5, 0, 0, 20, 20));
+        // Starting or ending exactly on an edge
+        assertTrue(Geometry.segmentIntersectsRect(-10, 5, 0, 5, 0, 0, 20, 20));
+        assertTrue(Geometry.segmentIntersectsRect(20, 5, 30, 5, 0, 0, 20, 20));
+        // Stopping just short
+        assertFalse(Geometry.segmentIntersectsRect(-10, 5, -0.5f, 5, 0, 0, 20, 20));
+        // Entirely inside, and a segment with no length inside
+        assertTrue(Geometry.segmentIntersectsRect(5, 5, 15, 15, 0, 0, 20, 20));
+        assertTrue(Geometry.segmentIntersectsRect(5, 5, 5, 5, 0, 0, 20, 20));
+
+        // Straight up and down or across, beside the box
+        assertFalse(Geometry.segmentIntersectsRect(25, -10, 25, 30, 0, 0, 20, 20));
+        assertFalse(Geometry.segmentIntersectsRect(-10, 25, 30, 25, 0, 0, 20, 20));
+        // Diagonally past a corner, and diagonally through the corner
+        assertFalse(Geometry.segmentIntersectsRect(15, -10, 30, 5, 0, 0, 20, 20));
+        assertTrue(Geometry.segmentIntersectsRect(10, -10, 30, 10, 0, 0, 20, 20));
+    }
+}
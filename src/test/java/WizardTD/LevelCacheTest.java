@@ -0,0 +1,70 @@
+package WizardTD;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelCacheTest {
+    private static void assertSameLevel(CompiledLevel expected, CompiledLevel actual) {
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            assertEquals(expected.getTiles().get(tile), actual.getTiles().get(tile));
+            assertEquals(expected.getPathImage(tile), actual.getPathImage(tile));
+            assertEquals(expected.getFlowField().getDistance(tile), actual.getFlowField().getDistance(tile));
+        }
+        assertEquals(expected.getMonsterPaths(), actual.getMonsterPaths());
+    }
+
+    @Test
+    public void compiledLevelsAreStoredAndLoadedBack(@TempDir Path directory) throws IOException {
+        LevelCache cache = new LevelCache(directory);
+
+        for(String level: new String[] {"level1.txt", "level2.txt", "level3.txt", "level4.txt"}) {
+            CompiledLevel compiled = CompiledLevel.compile(level);
+            assertSameLevel(compiled, cache.load(level));
+            assertTrue(Files.isRegularFile(cache.getCacheFile(level)));
+
+            // Second time round it comes from the cache file
+            long modified = Files.getLastModifiedTime(cache.getCacheFile(level)).toMillis();
+            assertSameLevel(compiled, cache.load(level));
+            assertEquals(modified, Files.getLastModifiedTime(cache.getCacheFile(level)).toMillis());
+        }
+    }
+
+    @Test
+    public void brokenOrStaleCacheFilesAreIgnored(@TempDir Path directory) throws IOException {
+        LevelCache cache = new LevelCache(directory.resolve("cache"));
+        Path level = directory.resolve("level.txt");
+        Files.copy(Paths.get("level1.txt"), level);
+        CompiledLevel compiled = CompiledLevel.compile("level1.txt");
+
+        // A cache file cut short is compiled again and replaced
+        cache.load(level.toString());
+        Path file = cache.getCacheFile(level.toString());
+        Files.write(file, new byte[] {0x57, 0x54, 0x4C, 0x56, 0, 0, 0, 1, 0});
+        assertSameLevel(compiled, cache.load(level.toString()));
+        assertTrue(Files.size(file) > 9);
+
+        // Editing the level file gives it a new cache file, and the old one is deleted
+        Files.write(level, "\n".getBytes(), StandardOpenOption.APPEND);
+        assertNotEquals(file, cache.getCacheFile(level.toString()));
+        assertSameLevel(compiled, cache.load(level.toString()));
+        assertFalse(Files.exists(file));
+        assertTrue(Files.isRegularFile(cache.getCacheFile(level.toString())));
+
+        // Other level files' cache files are kept
+        Path other = directory.resolve("other.txt");
+        Files.copy(Paths.get("level2.txt"), other);
+        cache.load(other.toString());
+        assertTrue(Files.isRegularFile(cache.getCacheFile(level.toString())));
+        try (Stream<Path> files = Files.list(directory.resolve("cache"))) {
+            assertEquals(2, files.count());
+        }
+    }
+}
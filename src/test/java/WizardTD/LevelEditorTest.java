@@ -0,0 +1,193 @@
+package WizardTD;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import processing.data.JSONObject;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevelEditorTest {
+    private static final int[] TERRAINS = {TileGrid.GRASS, TileGrid.SHRUB, TileGrid.PATH};
+
+    @Test
+    public void editedTilesGiveTheSameLevelAsCompilingIt() {
+        Random random = new Random(21);
+        for(String level: new String[] {"level1.txt", "level2.txt", "level3.txt", "level4.txt"}) {
+            Map map = new Map(level);
+
+            for(int edit = 0; edit < 500; edit++) {
+                int tile = random.nextInt(TileGrid.COLUMNS * TileGrid.ROWS);
+                map.setTile(tile, TERRAINS[random.nextInt(TERRAINS.length)]);
+
+                FlowField field = new FlowField(map.getTiles());
+                for(int i = 0; i < TileGrid.COLUMNS * TileGrid.ROWS; i++)
+                    assertEquals(field.getDistance(i), map.getFlowField().getDistance(i), level + " edit " + edit);
+                assertEquals(Map.findPaths(field), map.getMonsterPaths(), level + " edit " + edit);
+                // Paths that weren't walked again keep their compiled paths
+                assertEquals(map.getMonsterPaths().size(), map.getCompiledPaths().size());
+                for(int p = 0; p < map.getMonsterPaths().size(); p++)
+                    assertEquals(new MonsterPath(map.getMonsterPaths().get(p)).getLength(), map.getCompiledPaths().get(p).getLength(), level + " edit " + edit);
+            }
+        }
+    }
+
+    @Test
+    public void gamesCarryOnWithTheirMonstersOnTheEditedPaths() {
+        Soundboard.setMuted(true);
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        Map map = new Map(config.getString("layout"));
+        LevelEditor editor = new LevelEditor(map);
+        GameSimulation sim = new GameSimulation(config, map, new HashMap<>(), null, null, new Random(2));
+        StressScenario.placeTowersEverywhere(sim);
+        Random random = new Random(21);
+        // Tiles monsters were on when the level was last edited (they may have stopped being path)
+        HashSet<Integer> startingTiles = new HashSet<>();
+        int edits = 0;
+
+        while(!sim.isOver()) {
+            sim.tick();
+            for(Monster mtr: liveMonsters(sim)) {
+                int tile = TileGrid.indexAt((int)mtr.getXCenter(), (int)mtr.getYCenter());
+                if(tile >= 0 && !startingTiles.contains(tile))
+                    assertTrue(map.getTiles().get(tile) == TileGrid.PATH || map.getTiles().get(tile) == TileGrid.WIZARD_HOUSE, "tick " + sim.getTicks());
+            }
+            if(sim.getTicks() % 20 != 0)
+                continue;
+
+            // Edit a tile without a tower on it, as long as the level can still be played
+            int tile = random.nextInt(TileGrid.COLUMNS * TileGrid.ROWS);
+            int terrain = map.getTiles().get(tile);
+            if(TileGrid.isTower(sim.getTiles().get(tile)))
+                continue;
+            map.setTile(tile, TERRAINS[random.nextInt(TERRAINS.length)]);
+            if(!editor.isPlayable()) {
+                map.setTile(tile, terrain);
+                continue;
+            }
+
+            // Monsters on the map carry on from where they are. If some are left with no way to the wizard house,
+            // putting the tile back puts them back on a path
+            ArrayList<Monster> monsters = liveMonsters(sim);
+            float[] positions = new float[monsters.size() * 2];
+            for(int i = 0; i < monsters.size(); i++) {
+                positions[i * 2] = monsters.get(i).getXCenter();
+                positions[i * 2 + 1] = monsters.get(i).getYCenter();
+            }
+            if(!sim.applyMapEdits()) {
+                map.setTile(tile, terrain);
+                assertTrue(sim.applyMapEdits());
+            }
+            edits++;
+
+            startingTiles.clear();
+            for(int i = 0; i < monsters.size(); i++) {
+                Monster mtr = monsters.get(i);
+                int on = TileGrid.indexAt((int)positions[i * 2], (int)positions[i * 2 + 1]);
+                if(on < 0)
+                    continue;
+                assertEquals(positions[i * 2], mtr.getXCenter());
+                assertEquals(positions[i * 2 + 1], mtr.getYCenter());
+                startingTiles.add(on);
+            }
+        }
+        assertTrue(edits > 10, "edits: " + edits);
+    }
+
+    @Test
+    public void crowdsOfMonstersShareTheirNewPaths() {
+        Soundboard.setMuted(true);
+        Map map = new Map("level2.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterPool pool = new MonsterPool();
+        int quantity = 40000;
+        MonsterCollection mc = new MonsterCollection(quantity, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(3), grid, pool);
+
+        // Spread the monsters out over the first few tiles of each path
+        for(int batch = 0; batch < 200; batch++) {
+            for(int i = 0; i < quantity / 200; i++)
+                mc.spawn();
+            mc.tick();
+        }
+
+        // Shrub on a grass tile doesn't change the paths, but every monster is still put on a new one
+        int grass = 0;
+        while(map.getTiles().get(grass) != TileGrid.GRASS)
+            grass++;
+        map.setTile(grass, TileGrid.SHRUB);
+        ArrayList<Monster> monsters = mc.getMonsters();
+        float[] distancesToGo = new float[monsters.size()];
+        for(int i = 0; i < monsters.size(); i++)
+            distancesToGo[i] = monsters.get(i).getDistanceToGo();
+        assertTrue(mc.reroute(map));
+
+        // Monsters walking between the same two tiles share a path, and carry on from where they were
+        HashSet<Integer> paths = new HashSet<>();
+        for(int i = 0; i < monsters.size(); i++) {
+            Monster mtr = monsters.get(i);
+            paths.add(pool.path[mtr.getSlot()]);
+            assertEquals(distancesToGo[i], mtr.getDistanceToGo(), 0.01);
+        }
+        assertTrue(paths.size() < 100, "paths: " + paths.size());
+
+        float[] xs = new float[monsters.size()];
+        float[] ys = new float[monsters.size()];
+        for(int i = 0; i < monsters.size(); i++) {
+            xs[i] = monsters.get(i).getXCenter();
+            ys[i] = monsters.get(i).getYCenter();
+        }
+        mc.tick();
+        for(int i = 0; i < monsters.size(); i++)
+            assertEquals(1, Math.abs(monsters.get(i).getXCenter() - xs[i]) + Math.abs(monsters.get(i).getYCenter() - ys[i]), 0.01);
+    }
+
+    /**
+     * Gets every monster in a game that's on its way to the wizard house.
+     * @param sim the game
+     * @return the live monsters
+     */
+    private static ArrayList<Monster> liveMonsters(GameSimulation sim) {
+        ArrayList<Monster> monsters = new ArrayList<>();
+        for(MonsterCollection mc: sim.getWaves().getMonsters()) {
+            for(Monster mtr: mc.getMonsters()) {
+                if(mtr.getIsAlive())
+                    monsters.add(mtr);
+            }
+        }
+        return monsters;
+    }
+
+    @Test
+    public void savedLevelsAreReadBackTheSame(@TempDir Path directory) throws IOException {
+        Path file = directory.resolve("level.txt");
+        Files.copy(Paths.get("level3.txt"), file);
+        Map map = new Map(file.toString());
+        LevelEditor editor = new LevelEditor(map);
+
+        // Grass to shrub to path, next to the path coming in from the top, gives a new spawn point
+        int spawnPoints = map.getMonsterPaths().size();
+        assertTrue(editor.cycleTile(15 * App.CELLSIZE, App.TOPBAR));
+        assertTrue(editor.cycleTile(15 * App.CELLSIZE, App.TOPBAR));
+        assertEquals(TileGrid.PATH, map.getTiles().get(15));
+        assertEquals(spawnPoints + 1, map.getMonsterPaths().size());
+        // The top bar isn't part of the map
+        assertFalse(editor.cycleTile(0, 0));
+        assertTrue(editor.isPlayable());
+        editor.save();
+
+        CompiledLevel saved = CompiledLevel.compile(file.toString());
+        for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+            assertEquals(map.getTiles().get(tile), saved.getTiles().get(tile));
+            assertEquals(map.getFlowField().getDistance(tile), saved.getFlowField().getDistance(tile));
+        }
+        assertEquals(map.getMonsterPaths(), saved.getMonsterPaths());
+    }
+}
@@ -0,0 +1,83 @@
+package WizardTD;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonsterPathTest {
+    @Test
+    public void compiledPathsFollowTheMapsPaths() {
+        Map map = new Map("level1.txt");
+
+        for(int p = 0; p < map.getMonsterPaths().size(); p++) {
+            ArrayList<ArrayList<Integer>> tiles = map.getMonsterPaths().get(p);
+            MonsterPath path = map.getCompiledPaths().get(p);
+
+            // Path tiles are one tile apart, and every tile is on the polyline
+            assertEquals((tiles.size() - 1) * App.CELLSIZE, path.getLength());
+            int segment = 0;
+            for(int i = 0; i < tiles.size(); i++) {
+                segment = path.findSegment(i * App.CELLSIZE, segment);
+                assertEquals((float)tiles.get(i).get(0), path.getX(i * App.CELLSIZE, segment));
+                assertEquals((float)tiles.get(i).get(1), path.getY(i * App.CELLSIZE, segment));
+            }
+        }
+    }
+
+    @Test
+    public void everyEdgePathTileGetsTheShortestPath() {
+        for(String level: new String[] {"level1.txt", "level2.txt", "level3.txt", "level4.txt"}) {
+            Map map = new Map(level);
+            FlowField field = map.getFlowField();
+
+            int spawnPoints = 0;
+            for(int tile = 0; tile < TileGrid.COLUMNS * TileGrid.ROWS; tile++) {
+                if(field.isSpawnPoint(tile))
+                    spawnPoints++;
+            }
+            assertEquals(spawnPoints, map.getMonsterPaths().size(), level);
+
+            for(ArrayList<ArrayList<Integer>> path: map.getMonsterPaths()) {
+                // Each step on the map is one tile closer to the wizard house (the spawn point is just off the map)
+                for(int i = 1; i < path.size() - 1; i++) {
+                    int tile = TileGrid.indexAt(path.get(i).get(0), path.get(i).get(1));
+                    int next = TileGrid.indexAt(path.get(i + 1).get(0), path.get(i + 1).get(1));
+                    assertEquals(field.getDistance(tile) - 1, field.getDistance(next), level);
+                }
+                int last = path.size() - 1;
+                assertEquals(TileGrid.WIZARD_HOUSE, map.getTiles().get(TileGrid.indexAt(path.get(last).get(0), path.get(last).get(1))));
+                assertEquals(-1, TileGrid.indexAt(path.get(0).get(0), path.get(0).get(1)));
+            }
+        }
+    }
+
+    @Test
+    public void monstersWalkTheWholePathAtAnySpeed() {
+        Map map = new Map("level1.txt");
+
+        for(double speed: new double[] {1, 2.5, 3.3, 7}) {
+            MonsterPool pool = new MonsterPool();
+            MonsterCollection mc = new MonsterCollection(1, "gremlin", 100, speed, 0.5, new HashMap<>(), map, new Random(1), new SpatialGrid(map), pool);
+            Monster mtr = mc.spawn();
+            MonsterPath path = map.getCompiledPaths().get(pool.path[0]);
+
+            // Walks speed pixels a tick (starting from its spawn point on the first tick) until it's at the wizard house
+            int ticks = (int)Math.ceil(path.getLength() / speed);
+            for(int t = 1; t <= ticks; t++) {
+                mc.tick();
+                assertEquals(path.getLength() - (float)Math.min(path.getLength(), t * speed), mtr.getDistanceToGo(), 0.01, "speed " + speed);
+            }
+            assertEquals(0, mc.getWizardHpLoss());
+
+            // The tick after it arrives it hits the wizard house (once) and respawns
+            mc.tick();
+            assertEquals(100, mc.getWizardHpLoss());
+            mc.tick();
+            assertEquals(100, mc.getWizardHpLoss());
+            assertEquals(path.getX(0, 0), pool.prevX[0]);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package WizardTD;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import processing.data.JSONObject;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MonsterPoolTest {
+    @Test
+    public void slotsAreReusedOnceMonstersFinishDying() {
+        Soundboard.setMuted(true);
+        Map map = new Map("level2.txt");
+        MonsterPool pool = new MonsterPool();
+        int capacity = pool.getCapacity();
+        MonsterCollection mc = new MonsterCollection(capacity * 4, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), new SpatialGrid(map), pool);
+
+        // Spawn far more monsters than the pool starts with, killing each one as it spawns
+        for(int i = 0; i < mc.getQuantity(); i++) {
+            Monster mtr = mc.spawn();
+            int generation = mtr.getGeneration();
+            mtr.setIsDying(true);
+            while(mtr.getGeneration() == generation)
+                mc.tick();
+            assertEquals(0, pool.size());
+        }
+
+        assertEquals(capacity, pool.getCapacity());
+        assertEquals(mc.getQuantity(), mc.getMonstersKilled());
+        assertTrue(mc.isCleared());
+    }
+
+    @Test
+    public void finishedMonstersAreRetiredKeepingSpawnOrder() {
+        Soundboard.setMuted(true);
+        Map map = new Map("level2.txt");
+        MonsterCollection mc = new MonsterCollection(6, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), new SpatialGrid(map), new MonsterPool());
+        for(int i = 0; i < 6; i++)
+            mc.spawn();
+
+        // Kill the 2nd and 5th monsters and play out their death animations
+        mc.getMonsters().get(1).setIsDying(true);
+        mc.getMonsters().get(4).setIsDying(true);
+        for(int t = 0; t < 30; t++)
+            mc.tick();
+
+        assertEquals(2, mc.getMonstersKilled());
+        assertEquals(4, mc.getMonstersAlive());
+        int number = -1;
+        for(Monster mtr: mc.getMonsters()) {
+            assertTrue(mtr.getIsAlive());
+            assertTrue(mtr.getNumber() > number);
+            number = mtr.getNumber();
+        }
+        assertEquals(4, mc.getMonsters().size());
+    }
+
+    @Test
+    public void restartingReusesThePool() {
+        Soundboard.setMuted(true);
+        JSONObject config = GameSimulation.loadConfig("config.json");
+        Map map = new Map(config.getString("layout"));
+        MonsterPool pool = new MonsterPool();
+
+        GameSimulation sim = new GameSimulation(config, map, new HashMap<>(), null, null, new Random(1), pool);
+        sim.runToCompletion(60 * 60 * 10);
+        assertTrue(pool.size() > 0);
+
+        // A new game gives back every slot left over from the last one
+        int capacity = pool.getCapacity();
+        GameSimulation restarted = new GameSimulation(config, map, new HashMap<>(), null, null, new Random(1), pool);
+        assertEquals(0, pool.size());
+        assertSame(pool, restarted.getWaves().getPool());
+        assertEquals(capacity, pool.getCapacity());
+    }
+}
@@ -1,17 +1,17 @@
-package WizardTD;
-
-
-import processing.core.PApplet;
-import org.junit.jupiter.api.Test;
-import static org.junit.jupiter.api.Assertions.*;
-import java.awt.*;
-
-public class SampleTest {
-    @Test
-    public void simpleTest() {   
-    }
-}
-
-// gradle run
-// gradle test
+package WizardTD;
+
+
+import processing.core.PApplet;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.*;
+
+public class SampleTest {
+    @Test
+    public void simpleTest() {   
+    }
+}
+
+// gradle run
+// gradle test
 // gradle jacocoTestReport or gradle test jacocoTestReport
\ No newline at end of file
@@ -0,0 +1,186 @@
+package WizardTD;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpatialGridTest {
+    /**
+     * Creates a collection of monsters on level 2 and spawns them 10 ticks apart so they're spread along the paths.
+     */
+    private MonsterCollection spreadMonsters(Map map, SpatialGrid grid, int quantity) {
+        MonsterCollection mc = new MonsterCollection(quantity, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), grid, new MonsterPool());
+        for(int i = 0; i < quantity; i++) {
+            mc.spawn();
+            for(int t = 0; t < 10; t++)
+                mc.tick();
+        }
+        return mc;
+    }
+
+    @Test
+    public void onlyLiveMonstersAreInTheGrid() {
+        Map map = new Map("level2.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterCollection mc = spreadMonsters(map, grid, 40);
+        assertEquals(40, grid.size());
+
+        Soundboard.setMuted(true);
+        mc.getMonsters().get(3).setIsDying(true);
+        mc.tick();
+        assertEquals(39, grid.size());
+    }
+
+    @Test
+    public void crowdedTilesLoseTheRightMonsters() {
+        Soundboard.setMuted(true);
+        Map map = new Map("level2.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterCollection mc = new MonsterCollection(300, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), grid, new MonsterPool());
+        // Everyone spawns at once, so hundreds of monsters share each spawn tile
+        for(int i = 0; i < 300; i++)
+            mc.spawn();
+
+        Random random = new Random(9);
+        for(int t = 0; t < 120; t++) {
+            for(int k = 0; k < 3; k++)
+                mc.getMonsters().get(random.nextInt(mc.getMonsters().size())).setIsDying(true);
+            mc.tick();
+            if(t % 2 == 0)
+                grid.sortByProgress();
+
+            // Every live monster is where it thinks it is on its tile, and nothing else is in the grid
+            int alive = 0;
+            for(Monster mtr: mc.getMonsters()) {
+                if(!mtr.getIsAlive())
+                    continue;
+                alive++;
+                assertSame(mtr, grid.getMonstersOn(grid.cellAt(mtr.getX(), mtr.getY())).get(mtr.getCellIndex()));
+            }
+            assertEquals(alive, grid.size());
+        }
+    }
+
+    @Test
+    public void findsTheSameTargetAsCheckingEveryMonster() {
+        Map map = new Map("level2.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterCollection mc = spreadMonsters(map, grid, 60);
+
+        // Try a tower on every tile with a small, the initial and a twice upgraded range
+        for(int x = 0; x < 640; x += 32) {
+            for(int y = 40; y < 680; y += 32) {
+                for(int radius: new int[] {16, 96, 160}) {
+                    int[] covered = grid.coveredCells(x + 16, y + 16, radius);
+                    assertSame(closestByCheckingEveryMonster(mc, x, y, radius), grid.findTarget(Targeting.CLOSEST, covered, x + 16, y + 16, radius, x, y));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void everyTargetingFindsTheBestMonsterInRange() {
+        Map map = new Map("level2.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterCollection mc = spreadMonsters(map, grid, 60);
+        grid.sortByProgress();
+
+        // Give the monsters different hp (with some ties) so strongest and weakest aren't just the first created
+        Random random = new Random(2);
+        for(Monster mtr: mc.getMonsters())
+            mtr.setHp(10 * (1 + random.nextInt(5)));
+
+        for(Targeting targeting: Targeting.values()) {
+            for(int x = 0; x < 640; x += 32) {
+                for(int y = 40; y < 680; y += 32) {
+                    int[] covered = grid.coveredCells(x + 16, y + 16, 96);
+
+                    // Check every monster in range
+                    Monster expected = null;
+                    for(Monster mtr: mc.getMonsters()) {
+                        if(inRange(mtr, x, y, 96) && targeting.isBetter(mtr, expected, x, y))
+                            expected = mtr;
+                    }
+
+                    assertSame(expected, grid.findTarget(targeting, covered, x + 16, y + 16, 96, x, y), targeting + " at " + x + "," + y);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void targetingOrdersAndBreaksTiesByMonsterNumber() {
+        Soundboard.setMuted(true);
+        // Level 1 has a single path, so monsters spawned together are level with each other. Monsters 0 and 1 spawn
+        // first, monster 2 10 ticks later and monsters 3 and 4 10 ticks after that
+        Map map = new Map("level1.txt");
+        SpatialGrid grid = new SpatialGrid(map);
+        MonsterCollection mc = new MonsterCollection(5, "gremlin", 100, 1, 0.5, new HashMap<>(), map, new Random(1), grid, new MonsterPool());
+        for(int spawns: new int[] {2, 1, 2}) {
+            for(int i = 0; i < spawns; i++)
+                mc.spawn();
+            for(int t = 0; t < 10; t++)
+                mc.tick();
+        }
+        grid.sortByProgress();
+
+        Monster[] m = mc.getMonsters().toArray(new Monster[0]);
+        assertEquals(m[0].getDistanceToGo(), m[1].getDistanceToGo());
+        assertTrue(m[1].getDistanceToGo() < m[2].getDistanceToGo());
+        assertTrue(m[2].getDistanceToGo() < m[3].getDistanceToGo());
+        assertEquals(m[3].getDistanceToGo(), m[4].getDistanceToGo());
+
+        // Strongest is a tie between monsters 1 and 2, weakest a tie between monsters 0 and 4
+        int[] hps = {10, 40, 40, 30, 10};
+        for(int i = 0; i < m.length; i++)
+            m[i].setHp(hps[i]);
+
+        // A tower whose range covers the whole map
+        int[] covered = grid.coveredCells(320, 360, 1000);
+        assertSame(m[0], grid.findTarget(Targeting.FIRST, covered, 320, 360, 1000, 304, 344));
+        assertSame(m[3], grid.findTarget(Targeting.LAST, covered, 320, 360, 1000, 304, 344));
+        assertSame(m[1], grid.findTarget(Targeting.STRONGEST, covered, 320, 360, 1000, 304, 344));
+        assertSame(m[0], grid.findTarget(Targeting.WEAKEST, covered, 320, 360, 1000, 304, 344));
+
+        // With the winners gone the next best are picked, ties still going to the lower number
+        m[0].setIsDying(true);
+        m[3].setIsDying(true);
+        assertSame(m[1], grid.findTarget(Targeting.FIRST, covered, 320, 360, 1000, 304, 344));
+        assertSame(m[4], grid.findTarget(Targeting.LAST, covered, 320, 360, 1000, 304, 344));
+        assertSame(m[1], grid.findTarget(Targeting.STRONGEST, covered, 320, 360, 1000, 304, 344));
+        assertSame(m[4], grid.findTarget(Targeting.WEAKEST, covered, 320, 360, 1000, 304, 344));
+    }
+
+    /**
+     * Finds a tower's target the way towers used to: any corner in range, then the closest top left corner.
+     */
+    private Monster closestByCheckingEveryMonster(MonsterCollection mc, int x, int y, int radius) {
+        Monster closest = null;
+        double closestDistance = Double.MAX_VALUE;
+
+        for(Monster mtr: mc.getMonsters()) {
+            double distance = Math.sqrt(Math.pow(mtr.getX() - x, 2) + Math.pow(mtr.getY() - y, 2));
+            if(inRange(mtr, x, y, radius) && distance < closestDistance) {
+                closest = mtr;
+                closestDistance = distance;
+            }
+        }
+
+        return closest;
+    }
+
+    /**
+     * Checks if any corner of a monster is in range of a tower at x,y.
+     */
+    private boolean inRange(Monster mtr, int x, int y, int radius) {
+        for(int corner = 0; corner < 4; corner++) {
+            int cx = mtr.getX() + (corner % 2) * mtr.getSize();
+            int cy = mtr.getY() + (corner / 2) * mtr.getSize();
+            if(Math.sqrt(Math.pow(cx - (x + 16), 2) + Math.pow(cy - (y + 16), 2)) <= radius)
+                return true;
+        }
+        return false;
+    }
+}